@@ -0,0 +1,87 @@
+package com.cheetah.customweapons.bench;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.WeaponConfig;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Shared setup: an in-process MockBukkit server standing in for Paper, and a
+ * generated catalog of a given size, either parsed on its own or loaded into
+ * the real plugin.
+ */
+final class BenchEnvironment {
+
+    private BenchEnvironment() {}
+
+    static ServerMock start() {
+        return MockBukkit.mock();
+    }
+
+    static void stop() {
+        MockBukkit.unmock();
+    }
+
+    static Plugin plugin() {
+        return MockBukkit.createMockPlugin();
+    }
+
+    /**
+     * Enables the plugin with the generated catalog as its config.yml, through the
+     * same reload path as {@code /cweapons reload}. Its listeners stay registered.
+     */
+    static CustomWeapons load(ServerMock server, int catalogSize) {
+        CustomWeapons plugin = MockBukkit.load(CustomWeapons.class);
+        try {
+            catalogYaml(catalogSize).save(new File(plugin.getDataFolder(), "config.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String[] rejected = new String[1];
+        plugin.reloadAll((diff, error) -> rejected[0] = error);
+        // Parsed on an async task, then published on the main thread
+        server.getScheduler().waitAsyncTasksFinished();
+        server.getScheduler().performOneTick();
+        if (rejected[0] != null || plugin.getWeaponConfig().get("weapon_" + (catalogSize - 1)) == null) {
+            throw new IllegalStateException("Generated catalog was not loaded: " + rejected[0]);
+        }
+        return plugin;
+    }
+
+    /** The generated catalog parsed on its own, for benchmarks that need no listeners or item manager. */
+    static WeaponConfig catalog(int size, Plugin plugin) {
+        return new WeaponConfig(catalogYaml(size), plugin);
+    }
+
+    /** Weapons weapon_0 .. weapon_{size-1}, alternating swords and bows, with hold boosts. */
+    static YamlConfiguration catalogYaml(int size) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (int i = 0; i < size; i++) {
+            String base = "weapons.weapon_" + i;
+            yaml.set(base + ".name", "weapon_" + i);
+            yaml.set(base + ".id", "weapon_" + i);
+            yaml.set(base + ".weapon.name", "<colorize:Weapon " + i + ">");
+            yaml.set(base + ".weapon.lore", List.of(
+                    "&#AEAEAEA legendary weapon of the royal armory.",
+                    "",
+                    "&fPASSIVE: &#AEAEAEnumber " + i,
+                    "{boosts}"));
+            yaml.set(base + ".weapon.material", i % 2 == 0 ? "NETHERITE_SWORD" : "BOW");
+            yaml.set(base + ".colorized", List.of("&#F16164", "&#F18A55", "&#DBCC00"));
+            yaml.set(base + ".colors", List.of("&#27FFEE", "&#F13B3B"));
+            yaml.set(base + ".boost-display", "{color_1}▪ &7{boost}");
+            yaml.set(base + ".boosts.1.type", "HOLD_SPEED");
+            yaml.set(base + ".boosts.1.value", 1 + i % 3);
+            yaml.set(base + ".boosts.2.type", "HOLD_STRENGTH");
+            yaml.set(base + ".boosts.2.value", 1);
+        }
+        return yaml;
+    }
+}
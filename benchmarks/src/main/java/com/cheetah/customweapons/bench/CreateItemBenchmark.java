@@ -0,0 +1,66 @@
+package com.cheetah.customweapons.bench;
+
+import com.axteroid.customweapons.item.CustomItemManager;
+import com.cheetah.customweapons.config.WeaponConfig;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Building a weapon item from scratch against cloning its prototype, as createItem does. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateItemBenchmark {
+
+    private WeaponConfig config;
+    private WeaponConfig.WeaponDefinition definition;
+    private ItemStack prototype;
+
+    @Setup
+    public void setUp() {
+        BenchEnvironment.start();
+        config = BenchEnvironment.catalog(10, BenchEnvironment.plugin());
+        definition = config.get("weapon_0");
+        prototype = CustomItemManager.buildItem(config, definition);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchEnvironment.stop();
+    }
+
+    @Benchmark
+    public String renderName() {
+        return definition.renderDisplayName();
+    }
+
+    @Benchmark
+    public List<String> renderLore() {
+        return definition.renderLore();
+    }
+
+    @Benchmark
+    public ItemStack buildItem() {
+        return CustomItemManager.buildItem(config, definition);
+    }
+
+    @Benchmark
+    public ItemStack clonePrototype() {
+        return prototype.clone();
+    }
+}
@@ -0,0 +1,117 @@
+package com.cheetah.customweapons.bench;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.effect.HoldEffectReconciler;
+import com.cheetah.customweapons.listener.InventoryListener;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.state.PlayerState;
+import com.cheetah.customweapons.state.PlayerStateTable;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hold effect updates. The {@code fullUpdate*} benchmarks run
+ * InventoryListener.updatePlayerEffects on a player of the loaded plugin, so
+ * hand resolution through the held-item cache is included. The others measure
+ * the reconcile step alone, with the weapons already resolved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldEffectBenchmark {
+
+    private PlayerMock player;
+    private PlayerState state;
+    private WeaponConfig.WeaponDefinition speedOne;
+    private WeaponConfig.WeaponDefinition speedTwo;
+    private final HoldEffectReconciler reconciler = new HoldEffectReconciler(new PluginMetrics());
+    private boolean flip;
+
+    private InventoryListener inventoryListener;
+    private PlayerMock holder;
+    private PlayerState holderState;
+    private ItemStack speedOneItem;
+    private ItemStack speedTwoItem;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = BenchEnvironment.start();
+        CustomWeapons plugin = BenchEnvironment.load(server, 10);
+        WeaponConfig config = plugin.getWeaponConfig();
+        speedOne = config.get("weapon_0");
+        speedTwo = config.get("weapon_1");
+        player = server.addPlayer();
+        state = new PlayerStateTable().getOrCreate(player.getUniqueId());
+        reconciler.reconcile(player, state, speedOne, null);
+
+        inventoryListener = plugin.getInventoryListener();
+        speedOneItem = plugin.getItemManager().createItem("weapon_0");
+        speedTwoItem = plugin.getItemManager().createItem("weapon_1");
+        holder = server.addPlayer();
+        holder.getInventory().setItemInMainHand(speedOneItem);
+        inventoryListener.updatePlayerEffects(holder);
+        holderState = plugin.getPlayerStates().get(holder.getUniqueId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchEnvironment.stop();
+    }
+
+    /** Same weapon as last time: should touch no effects at all. */
+    @Benchmark
+    public int unchangedWeapon() {
+        reconciler.reconcile(player, state, speedOne, null);
+        return state.effectMask;
+    }
+
+    /** Alternates between weapons granting different speed levels. */
+    @Benchmark
+    public int switchWeapon() {
+        flip = !flip;
+        reconciler.reconcile(player, state, flip ? speedTwo : speedOne, null);
+        return state.effectMask;
+    }
+
+    /** Weapon moved to the off hand while the main hand is empty. */
+    @Benchmark
+    public int bothHands() {
+        flip = !flip;
+        reconciler.reconcile(player, state, flip ? speedOne : null, speedOne);
+        return state.effectMask;
+    }
+
+    /** Same stack in hand as last time: a held-item cache hit and no effect changes. */
+    @Benchmark
+    public int fullUpdateUnchanged() {
+        inventoryListener.updatePlayerEffects(holder);
+        return holderState.effectMask;
+    }
+
+    /** A different weapon stack each time: a cache miss, getItemId on the stack and an effect change. */
+    @Benchmark
+    public int fullUpdateSwitchWeapon() {
+        flip = !flip;
+        holder.getInventory().setItemInMainHand(flip ? speedTwoItem : speedOneItem);
+        inventoryListener.updatePlayerEffects(holder);
+        return holderState.effectMask;
+    }
+}
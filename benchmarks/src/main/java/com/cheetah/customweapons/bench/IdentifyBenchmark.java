@@ -0,0 +1,112 @@
+package com.cheetah.customweapons.bench;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.axteroid.customweapons.item.CustomItemManager;
+import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.WeaponConfig;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item identification. The {@code item*} benchmarks call
+ * CustomItemManager.getItemId on stacks, including the getItemMeta clone every
+ * lookup pays; the others measure WeaponConfig.identify on meta cloned once,
+ * i.e. the index lookups alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentifyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int catalogSize;
+
+    private WeaponConfig config;
+    private CustomItemManager itemManager;
+    private Material weaponType;
+    private ItemMeta tagged;
+    private ItemMeta untagged;
+    private ItemMeta vanilla;
+    private ItemMeta renamedVanilla;
+    private ItemStack taggedItem;
+    private ItemStack untaggedItem;
+    private ItemStack vanillaItem;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = BenchEnvironment.start();
+        CustomWeapons plugin = BenchEnvironment.load(server, catalogSize);
+        config = plugin.getWeaponConfig();
+        itemManager = plugin.getItemManager();
+        taggedItem = itemManager.createItem("weapon_" + (catalogSize - 1));
+        weaponType = taggedItem.getType();
+        tagged = taggedItem.getItemMeta();
+        // Same visuals without the PDC tag, as if another plugin created it; tag_fallback_items is off, so it stays so
+        untagged = taggedItem.getItemMeta();
+        untagged.getPersistentDataContainer().remove(config.getIdKey());
+        untaggedItem = new ItemStack(weaponType);
+        untaggedItem.setItemMeta(untagged);
+        vanillaItem = new ItemStack(weaponType);
+        vanilla = vanillaItem.getItemMeta();
+        renamedVanilla = new ItemStack(weaponType).getItemMeta();
+        renamedVanilla.setDisplayName("My Sword");
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchEnvironment.stop();
+    }
+
+    @Benchmark
+    public WeaponConfig.WeaponDefinition pdcHit() {
+        return config.identify(weaponType, tagged);
+    }
+
+    @Benchmark
+    public WeaponConfig.WeaponDefinition fallbackHit() {
+        return config.identify(weaponType, untagged);
+    }
+
+    @Benchmark
+    public WeaponConfig.WeaponDefinition vanillaMiss() {
+        return config.identify(weaponType, vanilla);
+    }
+
+    @Benchmark
+    public WeaponConfig.WeaponDefinition renamedVanillaMiss() {
+        return config.identify(weaponType, renamedVanilla);
+    }
+
+    @Benchmark
+    public String itemPdcHit() {
+        return itemManager.getItemId(taggedItem);
+    }
+
+    @Benchmark
+    public String itemFallbackHit() {
+        return itemManager.getItemId(untaggedItem);
+    }
+
+    @Benchmark
+    public String itemVanillaMiss() {
+        return itemManager.getItemId(vanillaItem);
+    }
+}
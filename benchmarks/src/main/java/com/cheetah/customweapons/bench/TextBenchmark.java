@@ -0,0 +1,67 @@
+package com.cheetah.customweapons.bench;
+
+import com.cheetah.customweapons.util.TextTemplate;
+import com.cheetah.customweapons.util.TextUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The TextUtil regex pipeline against the same templates compiled by TextTemplate. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextBenchmark {
+
+    private static final String NAME = "<colorize:King's Sword>";
+    private static final String LORE = "&fPASSIVE: &#AEAEAEGain permanent {color_1}Strength I &7{boosts}";
+    private static final String BOOSTS = "§x§2§7§f§f§e§e▪ §7HOLD_STRENGTH x1.0";
+
+    private List<String> colorized;
+    private List<String> colors;
+    private TextTemplate nameTemplate;
+    private TextTemplate loreTemplate;
+    private final StringBuilder builder = new StringBuilder();
+
+    @Setup
+    public void setUp() {
+        colorized = List.of("&#F16164", "&#F18A55", "&#DBCC00", "&#ACF192");
+        colors = List.of("&#F13B3B", "&#27FFEE");
+        nameTemplate = TextTemplate.compileName(NAME, colorized, colors);
+        loreTemplate = TextTemplate.compileLine(LORE, colors);
+    }
+
+    @Benchmark
+    public String legacyName() {
+        return TextUtil.applyPlaceholders(TextUtil.applyColorizeTag(NAME, colorized), colors, null);
+    }
+
+    @Benchmark
+    public String compiledName() {
+        return nameTemplate.render(null);
+    }
+
+    @Benchmark
+    public String legacyLoreLine() {
+        return TextUtil.applyAmpColors(TextUtil.applyPlaceholders(LORE, colors, BOOSTS));
+    }
+
+    @Benchmark
+    public String compiledLoreLine() {
+        builder.setLength(0);
+        loreTemplate.renderTo(builder, BOOSTS);
+        return builder.toString();
+    }
+}
@@ -1,22 +1,55 @@
 package com.cheetah.customweapons;
 
 import com.cheetah.customweapons.command.CustomWeaponsCommand;
+import com.cheetah.customweapons.config.CatalogDiff;
 import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.effect.ExpiryWheel;
 import com.cheetah.customweapons.item.CustomItemManager;
+import com.cheetah.customweapons.listener.AbilityListener;
 import com.cheetah.customweapons.listener.BowListener;
+import com.cheetah.customweapons.listener.HitListener;
 import com.cheetah.customweapons.listener.InventoryListener;
+import com.cheetah.customweapons.metrics.MetricsSnapshotTask;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import com.cheetah.customweapons.state.CooldownTable;
+import com.cheetah.customweapons.state.PlayerStateTable;
 import com.cheetah.customweapons.task.HoldEffectsTask;
-import org.bukkit.event.HandlerList;
 import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
 public final class CustomWeapons extends JavaPlugin {
 
+    // Players reconciled per tick after a reload
+    private static final int RECONCILE_PER_TICK = 20;
+
     private static CustomWeapons instance;
-    private WeaponConfig weaponConfig;
+    // Bukkit scheduler on Paper, region schedulers on Folia
+    private PluginScheduler scheduler;
+    // Swapped in one write once a reloaded catalog is validated
+    private volatile WeaponConfig weaponConfig;
+    private final AtomicBoolean reloading = new AtomicBoolean();
     private CustomItemManager itemManager;
     private HoldEffectsTask holdEffectsTask;
+    private InventoryListener inventoryListener;
+    private BowListener bowListener;
+    private AbilityListener abilityListener;
+    // Kept across reloads so effects applied under the old catalog can be reconciled
+    private final PlayerStateTable playerStates = new PlayerStateTable();
+    // Sized to the catalog's ability slots; reset whenever a reload renumbers them
+    private final CooldownTable cooldowns = new CooldownTable(0);
+    private final PluginMetrics metrics = new PluginMetrics();
+    private MetricsSnapshotTask metricsSnapshotTask;
+    // Timed on-hit effects such as glowing, shared by all listeners
+    private ExpiryWheel expiryWheel;
 
     public static CustomWeapons getInstance() {
         return instance;
@@ -29,24 +62,51 @@ public final class CustomWeapons extends JavaPlugin {
     @Override
     public void onEnable() {
         instance = this;
+        this.scheduler = PluginScheduler.create(this);
         saveDefaultConfig();
         reloadWeaponConfig();
+        cooldowns.reset(weaponConfig.getAbilityCount());
 
         this.itemManager = new CustomItemManager(this);
-
-        // Disabled polling task - using event-driven detection instead
-        // int interval = Math.max(1, getConfig().getInt("tick_interval", 100));
-        // this.holdEffectsTask = new HoldEffectsTask(this, itemManager, interval);
-        // this.holdEffectsTask.start();
-
-        getServer().getPluginManager().registerEvents(new BowListener(this, itemManager), this);
-        getServer().getPluginManager().registerEvents(new InventoryListener(this, itemManager), this);
+        this.expiryWheel = new ExpiryWheel(this, metrics, scheduler);
+        expiryWheel.start();
+
+        this.bowListener = new BowListener(this, itemManager);
+        getServer().getPluginManager().registerEvents(bowListener, this);
+        this.inventoryListener = new InventoryListener(this, itemManager, playerStates);
+        getServer().getPluginManager().registerEvents(inventoryListener, this);
+        getServer().getPluginManager().registerEvents(
+            new HitListener(this, inventoryListener.getHeldItemCache(), bowListener), this);
+        this.abilityListener = new AbilityListener(this, inventoryListener.getHeldItemCache());
+        getServer().getPluginManager().registerEvents(abilityListener, this);
 
         CustomWeaponsCommand command = new CustomWeaponsCommand(this, itemManager);
         if (getCommand("cweapons") != null) {
             getCommand("cweapons").setExecutor(command);
             getCommand("cweapons").setTabCompleter(command);
         }
+
+        this.metricsSnapshotTask = new MetricsSnapshotTask(this, metrics, scheduler);
+        applyTaskOptions(getConfig());
+    }
+
+    /**
+     * (Re)starts the sweep and the stats snapshot with the top-level options of
+     * {@code config}, so a reload picks up a changed interval or budget.
+     */
+    private void applyTaskOptions(ConfigurationSection config) {
+        if (holdEffectsTask != null) {
+            holdEffectsTask.stop();
+            holdEffectsTask = null;
+        }
+        // Events drive effect updates; this sweep only repairs hand changes no event reported
+        int interval = config.getInt("tick_interval", 100);
+        if (interval > 0) {
+            this.holdEffectsTask = new HoldEffectsTask(this, inventoryListener, interval,
+                config.getLong("sweep_budget_micros", 500));
+            holdEffectsTask.start();
+        }
+        metricsSnapshotTask.start(config.getLong("stats_snapshot_interval", 300));
     }
 
     @Override
@@ -54,34 +114,96 @@ public final class CustomWeapons extends JavaPlugin {
         if (holdEffectsTask != null) {
             holdEffectsTask.stop();
         }
+        if (inventoryListener != null) {
+            inventoryListener.shutdown();
+        }
+        if (bowListener != null) {
+            bowListener.shutdown();
+        }
+        if (abilityListener != null) {
+            abilityListener.shutdown();
+        }
+        if (expiryWheel != null) {
+            expiryWheel.shutdown();
+        }
+        if (metricsSnapshotTask != null) {
+            metricsSnapshotTask.stop();
+            metricsSnapshotTask.write();
+        }
     }
 
     public void reloadWeaponConfig() {
         reloadConfig();
         FileConfiguration config = getConfig();
-        this.weaponConfig = new WeaponConfig(config);
+        this.weaponConfig = new WeaponConfig(config, this);
     }
 
-    public void reloadAll() {
-        // Stop tasks
-        if (holdEffectsTask != null) {
-            holdEffectsTask.stop();
+    /**
+     * Parses and validates config.yml off the main thread, then publishes it with a
+     * single swap while listeners stay registered. A config that fails to load is
+     * rejected and the current catalog stays live. The top-level task options
+     * ({@code tick_interval}, {@code sweep_budget_micros}, {@code stats_snapshot_interval})
+     * are applied along with the catalog. {@code done} runs on the main thread with
+     * what changed, or with null and the reason the reload was rejected.
+     */
+    public void reloadAll(BiConsumer<CatalogDiff, String> done) {
+        if (!reloading.compareAndSet(false, true)) {
+            done.accept(null, "a reload is already in progress");
+            return;
         }
-        // Unregister listeners
-        HandlerList.unregisterAll(this);
-        // Reload configuration and managers
-        reloadWeaponConfig();
-        // Recreate item manager to ensure clean state
-        this.itemManager = new CustomItemManager(this);
-        // Re-register listeners
-        getServer().getPluginManager().registerEvents(new BowListener(this, itemManager), this);
-        getServer().getPluginManager().registerEvents(new InventoryListener(this, itemManager), this);
-        // Re-attach command executor/tab completer
-        CustomWeaponsCommand command = new CustomWeaponsCommand(this, itemManager);
-        if (getCommand("cweapons") != null) {
-            getCommand("cweapons").setExecutor(command);
-            getCommand("cweapons").setTabCompleter(command);
+        metrics.reloads.increment();
+        File file = new File(getDataFolder(), "config.yml");
+        scheduler.runAsync(() -> {
+            YamlConfiguration yaml = new YamlConfiguration();
+            WeaponConfig loaded = null;
+            String error = null;
+            try {
+                yaml.load(file);
+                if (!yaml.isConfigurationSection("weapons")) {
+                    throw new InvalidConfigurationException("missing 'weapons' section");
+                }
+                loaded = new WeaponConfig(yaml, this);
+            } catch (Exception e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                getLogger().warning("Rejected config.yml reload, keeping the current catalog: " + error);
+            }
+            WeaponConfig result = loaded;
+            String rejected = error;
+            if (!isEnabled()) return;
+            scheduler.runGlobal(() -> {
+                CatalogDiff diff = null;
+                String reason = rejected;
+                try {
+                    if (result != null) {
+                        diff = publishWeaponConfig(result);
+                        applyTaskOptions(yaml);
+                    }
+                } catch (Exception e) {
+                    diff = null;
+                    reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    getLogger().warning("Could not publish the reloaded config.yml: " + reason);
+                } finally {
+                    reloading.set(false);
+                }
+                done.accept(diff, reason);
+            });
+        });
+    }
+
+    private CatalogDiff publishWeaponConfig(WeaponConfig config) {
+        CatalogDiff diff = CatalogDiff.of(weaponConfig, config);
+        // Prototypes first, so no thread finds the new catalog without its items
+        itemManager.rebuildPrototypes(config);
+        this.weaponConfig = config;
+        if (diff.slotsMoved) {
+            cooldowns.reset(config.getAbilityCount());
+            // On Folia player state belongs to region threads and is reset as each player is reconciled
+            if (!scheduler.isRegionized()) playerStates.resetProcs();
         }
+        // Only players holding an added, removed or changed weapon are re-resolved, over the next ticks
+        inventoryListener.reconcileGradually(RECONCILE_PER_TICK, diff);
+        getLogger().info("Reloaded weapons: " + diff.summary());
+        return diff;
     }
 
     public WeaponConfig getWeaponConfig() {
@@ -91,6 +213,30 @@ public final class CustomWeapons extends JavaPlugin {
     public CustomItemManager getItemManager() {
         return itemManager;
     }
+
+    public CooldownTable getCooldowns() {
+        return cooldowns;
+    }
+
+    public PlayerStateTable getPlayerStates() {
+        return playerStates;
+    }
+
+    public PluginScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public ExpiryWheel getExpiryWheel() {
+        return expiryWheel;
+    }
+
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
+    public InventoryListener getInventoryListener() {
+        return inventoryListener;
+    }
 }
 
 
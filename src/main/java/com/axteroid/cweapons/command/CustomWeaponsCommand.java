@@ -3,6 +3,11 @@ package com.cheetah.customweapons.command;
 import com.cheetah.customweapons.CustomWeapons;
 import com.cheetah.customweapons.config.WeaponConfig;
 import com.cheetah.customweapons.item.CustomItemManager;
+import com.cheetah.customweapons.listener.AbilityListener;
+import com.cheetah.customweapons.metrics.LatencyHistogram;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.state.CooldownTable;
+import com.cheetah.customweapons.state.PlayerState;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -14,9 +19,11 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
@@ -32,7 +39,7 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
         if (args.length == 0) {
-            sender.sendMessage(ChatColor.YELLOW + "/" + label + " <give|list|reload> ...");
+            sender.sendMessage(ChatColor.YELLOW + "/" + label + " <give|list|reload|stats|cooldowns> ...");
             return true;
         }
         String sub = args[0].toLowerCase();
@@ -50,8 +57,48 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
                     sender.sendMessage(ChatColor.RED + "No permission.");
                     return true;
                 }
-                plugin.reloadAll();
-                sender.sendMessage(ChatColor.GREEN + "CustomWeapons fully reloaded.");
+                sender.sendMessage(ChatColor.GRAY + "Reloading CustomWeapons...");
+                plugin.reloadAll((diff, error) -> {
+                    if (error == null) {
+                        sender.sendMessage(ChatColor.GREEN + "CustomWeapons reloaded: " + ChatColor.GRAY + diff.summary());
+                    } else {
+                        sender.sendMessage(ChatColor.RED + "Reload rejected, keeping the current weapons: " + error);
+                    }
+                });
+                return true;
+            case "stats":
+                if (!sender.hasPermission("customweapons.use")) {
+                    sender.sendMessage(ChatColor.RED + "No permission.");
+                    return true;
+                }
+                sendStats(sender);
+                return true;
+            case "cooldowns":
+                if (!sender.hasPermission("customweapons.use")) {
+                    sender.sendMessage(ChatColor.RED + "No permission.");
+                    return true;
+                }
+                if (args.length < 2) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /" + label + " cooldowns <player> [reset]");
+                    return true;
+                }
+                Player holder = Bukkit.getPlayer(args[1]);
+                if (holder == null) {
+                    sender.sendMessage(ChatColor.RED + "Player not found.");
+                    return true;
+                }
+                PlayerState state = plugin.getPlayerStates().get(holder.getUniqueId());
+                if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+                    if (state != null) {
+                        // The row belongs to the player's thread, which on Folia may not be this one
+                        plugin.getScheduler().runAtEntity(holder, () -> {
+                            if (state.cooldownRow >= 0) plugin.getCooldowns().clearRow(state.cooldownRow);
+                        });
+                    }
+                    sender.sendMessage(ChatColor.GREEN + "Reset ability cooldowns for " + holder.getName());
+                    return true;
+                }
+                sendCooldowns(sender, holder, state);
                 return true;
             case "give":
                 if (!sender.hasPermission("customweapons.use")) {
@@ -59,36 +106,34 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
                 if (args.length < 2) {
-                    sender.sendMessage(ChatColor.RED + "Usage: /" + label + " give <weaponId> [player]");
+                    sender.sendMessage(ChatColor.RED + "Usage: /" + label + " give <weaponId> [player|@a]");
                     return true;
                 }
                 String id = args[1];
-                Player target;
-                if (args.length >= 3) {
-                    target = Bukkit.getPlayer(args[2]);
+                Collection<? extends Player> targets;
+                if (args.length >= 3 && args[2].equalsIgnoreCase("@a")) {
+                    targets = Bukkit.getOnlinePlayers();
+                } else if (args.length >= 3) {
+                    Player target = Bukkit.getPlayer(args[2]);
+                    if (target == null) {
+                        sender.sendMessage(ChatColor.RED + "Player not found.");
+                        return true;
+                    }
+                    targets = List.of(target);
                 } else if (sender instanceof Player) {
-                    target = (Player) sender;
+                    targets = List.of((Player) sender);
                 } else {
                     sender.sendMessage(ChatColor.RED + "Specify a player.");
                     return true;
                 }
-                if (target == null) {
-                    sender.sendMessage(ChatColor.RED + "Player not found.");
-                    return true;
-                }
                 if (plugin.getWeaponConfig().get(id) == null) {
                     sender.sendMessage(ChatColor.RED + "Unknown weapon id: " + id);
                     return true;
                 }
-                itemManager.give(target, id);
-                // If bow with spectral behavior, optionally give one spectral arrow for convenience
-                WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(id);
-                boolean spectralLegacy = def.legacyBowModifiers != null && Boolean.TRUE.equals(def.legacyBowModifiers.get("spectral"));
-                boolean spectralBoost = def.boosts.stream().anyMatch(b -> "BOW_SPECTRAL".equalsIgnoreCase(b.type));
-                if (spectralLegacy || spectralBoost) {
-                    target.getInventory().addItem(new org.bukkit.inventory.ItemStack(org.bukkit.Material.SPECTRAL_ARROW, 1));
-                }
-                sender.sendMessage(ChatColor.GREEN + "Gave " + id + " to " + target.getName());
+                // Bows that shoot spectral arrows come with one for convenience
+                int given = itemManager.giveAll(targets, id);
+                String who = targets.size() == 1 ? targets.iterator().next().getName() : given + " players";
+                sender.sendMessage(ChatColor.GREEN + "Gave " + id + " to " + who);
                 return true;
             default:
                 sender.sendMessage(ChatColor.RED + "Unknown subcommand.");
@@ -96,6 +141,49 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void sendCooldowns(CommandSender sender, Player holder, PlayerState state) {
+        CooldownTable cooldowns = plugin.getCooldowns();
+        int now = plugin.getScheduler().currentTick();
+        int shown = 0;
+        if (state != null && state.cooldownRow >= 0) {
+            for (WeaponConfig.WeaponDefinition d : plugin.getWeaponConfig().getDefinitions().values()) {
+                for (WeaponConfig.BoostDef ability : d.abilities) {
+                    int ticks = cooldowns.remaining(state.cooldownRow, ability.abilitySlot, now);
+                    if (ticks == 0) continue;
+                    sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.GOLD + d.id + ChatColor.GRAY + " "
+                            + ability.boostType.displayName() + ": " + ChatColor.WHITE + AbilityListener.formatTicks(ticks));
+                    shown++;
+                }
+            }
+        }
+        if (shown == 0) {
+            sender.sendMessage(ChatColor.GRAY + holder.getName() + " has no abilities on cooldown.");
+        }
+    }
+
+    private void sendStats(CommandSender sender) {
+        PluginMetrics metrics = plugin.getMetrics();
+        long uptime = (System.currentTimeMillis() - metrics.getStartedAt()) / 1000;
+        sender.sendMessage(ChatColor.AQUA + "CustomWeapons stats (" + uptime + "s):");
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, LongAdder> e : metrics.getCounters().entrySet()) {
+            if (line.length() > 0) line.append(ChatColor.GRAY).append(", ");
+            line.append(ChatColor.GRAY).append(e.getKey()).append('=').append(ChatColor.WHITE).append(e.getValue().sum());
+        }
+        sender.sendMessage(line.toString());
+        for (Map.Entry<String, LatencyHistogram> e : metrics.getTimers().entrySet()) {
+            LatencyHistogram h = e.getValue();
+            if (h.count() == 0) continue;
+            long p99 = h.quantileMicros(0.99);
+            sender.sendMessage(ChatColor.GOLD + e.getKey() + ChatColor.GRAY
+                    + " n=" + h.count()
+                    + String.format(" mean=%.1fus", h.meanMicros())
+                    + " p99<" + (p99 < 0 ? "inf" : p99 + "us")
+                    + " max=" + h.maxNanos() / 1000 + "us"
+                    + " total=" + h.totalNanos() / 1_000_000 + "ms");
+        }
+    }
+
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
         if (args.length == 1) {
@@ -103,6 +191,8 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
             base.add("give");
             base.add("list");
             base.add("reload");
+            base.add("stats");
+            base.add("cooldowns");
             return base.stream().filter(s -> s.startsWith(args[0].toLowerCase())).collect(Collectors.toList());
         }
         if (args.length == 2 && args[0].equalsIgnoreCase("give")) {
@@ -111,11 +201,22 @@ public class CustomWeaponsCommand implements CommandExecutor, TabCompleter {
                     .sorted()
                     .collect(Collectors.toList());
         }
-        if (args.length == 3 && args[0].equalsIgnoreCase("give")) {
+        if (args.length == 2 && args[0].equalsIgnoreCase("cooldowns")) {
             return Bukkit.getOnlinePlayers().stream().map(Player::getName)
+                    .filter(n -> n.toLowerCase().startsWith(args[1].toLowerCase()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 3 && args[0].equalsIgnoreCase("cooldowns")) {
+            return "reset".startsWith(args[2].toLowerCase()) ? List.of("reset") : Collections.emptyList();
+        }
+        if (args.length == 3 && args[0].equalsIgnoreCase("give")) {
+            List<String> names = Bukkit.getOnlinePlayers().stream().map(Player::getName)
                     .filter(n -> n.toLowerCase().startsWith(args[2].toLowerCase()))
                     .sorted()
                     .collect(Collectors.toList());
+            if ("@a".startsWith(args[2].toLowerCase())) names.add(0, "@a");
+            return names;
         }
         return Collections.emptyList();
     }
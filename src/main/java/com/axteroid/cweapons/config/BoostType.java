@@ -0,0 +1,88 @@
+package com.cheetah.customweapons.config;
+
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every boost type a weapon can declare under {@code boosts}. Config strings are
+ * resolved to these once at load so hot paths never compare type names.
+ */
+public enum BoostType {
+    // Per level, the same as the potion effect: +20% speed, +3 attack damage, -15% speed
+    HOLD_SPEED(Category.HOLD, PotionEffectType.SPEED,
+            Attribute.GENERIC_MOVEMENT_SPEED, 0.2, AttributeModifier.Operation.MULTIPLY_SCALAR_1),
+    HOLD_STRENGTH(Category.HOLD, PotionEffectType.STRENGTH,
+            Attribute.GENERIC_ATTACK_DAMAGE, 3, AttributeModifier.Operation.ADD_NUMBER),
+    HOLD_RESISTANCE(Category.HOLD, PotionEffectType.RESISTANCE), // no attribute equivalent
+    HOLD_SLOWNESS(Category.HOLD, PotionEffectType.SLOWNESS,
+            Attribute.GENERIC_MOVEMENT_SPEED, -0.15, AttributeModifier.Operation.MULTIPLY_SCALAR_1),
+    BOW_FLAME_LEVEL(Category.BOW, null),
+    BOW_SPECTRAL(Category.BOW, null),
+    BOW_GLOW(Category.BOW, null), // value: seconds a hit entity glows, default 10
+    HIT_IGNITE(Category.HIT, null), // value: seconds on fire, default 4
+    HIT_KNOCKBACK(Category.HIT, null), // value: strength, default 1
+    HIT_LIFESTEAL(Category.HIT, null), // value: fraction of damage healed, default 0.1
+    HIT_SLOWNESS(Category.HIT, PotionEffectType.SLOWNESS), // value: level, duration: seconds
+    HIT_WEAKNESS(Category.HIT, PotionEffectType.WEAKNESS),
+    HIT_POISON(Category.HIT, PotionEffectType.POISON),
+    HIT_WITHER(Category.HIT, PotionEffectType.WITHER),
+    HIT_BLINDNESS(Category.HIT, PotionEffectType.BLINDNESS),
+    ABILITY_DASH(Category.ABILITY, null), // value: strength, default 1.5
+    ABILITY_SHIELD_BASH(Category.ABILITY, null); // value: strength, default 1
+
+    // HOLD applies while held; BOW on shots and projectile hits; HIT on melee and projectile hits;
+    // ABILITY on right-click, gated by its cooldown
+    public enum Category { HOLD, BOW, HIT, ABILITY }
+
+    private static final Map<String, BoostType> BY_NAME = new HashMap<>();
+    static {
+        for (BoostType type : values()) {
+            BY_NAME.put(type.name(), type);
+        }
+    }
+
+    public final Category category;
+    public final PotionEffectType effectType; // set for HOLD and potion HIT boosts
+    // Item attribute that can stand in for a HOLD effect, see attribute_modifiers; null when none can
+    public final Attribute attribute;
+    public final double attributePerLevel;
+    public final AttributeModifier.Operation attributeOperation;
+
+    BoostType(Category category, PotionEffectType effectType) {
+        this(category, effectType, null, 0, null);
+    }
+
+    BoostType(Category category, PotionEffectType effectType,
+              Attribute attribute, double attributePerLevel, AttributeModifier.Operation attributeOperation) {
+        this.category = category;
+        this.effectType = effectType;
+        this.attribute = attribute;
+        this.attributePerLevel = attributePerLevel;
+        this.attributeOperation = attributeOperation;
+    }
+
+    /** Whether the boost acts on hit, where a chance or cooldown is rolled; see HitActions. */
+    public boolean actsOnHit() {
+        return category == Category.HIT || this == BOW_GLOW;
+    }
+
+    /** Name shown to players: ABILITY_SHIELD_BASH becomes "Shield Bash". */
+    public String displayName() {
+        String[] words = name().split("_");
+        StringBuilder out = new StringBuilder();
+        for (int i = 1; i < words.length; i++) {
+            if (out.length() > 0) out.append(' ');
+            out.append(words[i].charAt(0)).append(words[i].substring(1).toLowerCase());
+        }
+        return out.toString();
+    }
+
+    /** The boost type for an upper-case config name, or null when unknown. */
+    public static BoostType fromName(String name) {
+        return BY_NAME.get(name);
+    }
+}
@@ -0,0 +1,129 @@
+package com.cheetah.customweapons.config;
+
+import com.cheetah.customweapons.state.PlayerState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What a reload changed, by comparing the {@link WeaponConfig.WeaponDefinition#contentHash}
+ * of each weapon id in the old and new catalog. Only players holding a weapon in
+ * {@link #touched()} need their effects reconciled.
+ */
+public final class CatalogDiff {
+
+    public final List<String> added;
+    public final List<String> removed;
+    public final List<String> changed;
+    public final int unchanged;
+    // Proc or ability slots were renumbered, so per-player counters and cooldowns no longer line up
+    public final boolean slotsMoved;
+    private final Set<String> touched;
+
+    private CatalogDiff(List<String> added, List<String> removed, List<String> changed, int unchanged, boolean slotsMoved) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.changed = Collections.unmodifiableList(changed);
+        this.unchanged = unchanged;
+        this.slotsMoved = slotsMoved;
+        Set<String> ids = new HashSet<>(added);
+        ids.addAll(removed);
+        ids.addAll(changed);
+        this.touched = Collections.unmodifiableSet(ids);
+    }
+
+    /** Compares two catalogs; with no previous catalog every weapon counts as added. */
+    public static CatalogDiff of(WeaponConfig previous, WeaponConfig next) {
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        int unchanged = 0;
+        boolean slotsMoved = previous == null
+                || previous.getProcCount() != next.getProcCount()
+                || previous.getAbilityCount() != next.getAbilityCount();
+        for (WeaponConfig.WeaponDefinition def : next.getDefinitions().values()) {
+            WeaponConfig.WeaponDefinition old = previous != null ? previous.get(def.id) : null;
+            if (old == null) {
+                added.add(def.id);
+            } else if (old.contentHash != def.contentHash) {
+                changed.add(def.id);
+            } else {
+                unchanged++;
+                if (!slotsMoved) slotsMoved = !sameSlots(old, def);
+            }
+        }
+        if (previous != null) {
+            for (String id : previous.getDefinitions().keySet()) {
+                if (next.get(id) == null) removed.add(id);
+            }
+        }
+        Collections.sort(added);
+        Collections.sort(removed);
+        Collections.sort(changed);
+        return new CatalogDiff(added, removed, changed, unchanged, slotsMoved);
+    }
+
+    // Same content, but an earlier weapon gaining or losing a gated boost shifts the numbering
+    private static boolean sameSlots(WeaponConfig.WeaponDefinition a, WeaponConfig.WeaponDefinition b) {
+        for (int i = 0; i < a.boosts.size(); i++) {
+            WeaponConfig.BoostDef x = a.boosts.get(i);
+            WeaponConfig.BoostDef y = b.boosts.get(i);
+            if (x.abilitySlot != y.abilitySlot) return false;
+            if ((x.proc != null ? x.proc.slot : -1) != (y.proc != null ? y.proc.slot : -1)) return false;
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return touched.isEmpty();
+    }
+
+    public Set<String> touched() {
+        return touched;
+    }
+
+    /**
+     * Whether the player holds, wears or was granted effects by a touched weapon.
+     * Cached non-weapon stacks count too once weapons were added or changed, since
+     * they may now match one by name and lore.
+     */
+    public boolean affects(PlayerState state) {
+        if (touched.isEmpty()) return false;
+        if (isTouched(state.mainHand) || isTouched(state.offHand)) return true;
+        boolean newMatches = !added.isEmpty() || !changed.isEmpty();
+        for (int hand = 0; hand < state.heldIds.length; hand++) {
+            String id = state.heldIds[hand];
+            if (id != null ? touched.contains(id) : newMatches && state.heldSnapshots[hand] != null) return true;
+        }
+        for (int slot = 0; slot < state.armorWeapons.length; slot++) {
+            String id = state.armorWeapons[slot];
+            if (id != null ? touched.contains(id) : newMatches && (state.armorWorn & 1 << slot) != 0) return true;
+        }
+        return false;
+    }
+
+    private boolean isTouched(String id) {
+        return id != null && touched.contains(id);
+    }
+
+    /** One line for the console and the reload command, e.g. "1 changed (kings_bow), 12 unchanged". */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, "added", added);
+        append(sb, "removed", removed);
+        append(sb, "changed", changed);
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(unchanged).append(" unchanged");
+        if (slotsMoved) sb.append("; proc and ability cooldowns were reset");
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String label, List<String> ids) {
+        if (ids.isEmpty()) return;
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(ids.size()).append(' ').append(label).append(" (").append(String.join(", ", ids)).append(')');
+    }
+}
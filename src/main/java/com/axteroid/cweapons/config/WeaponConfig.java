@@ -1,32 +1,87 @@
 package com.cheetah.customweapons.config;
 
+import com.cheetah.customweapons.effect.HitAction;
+import com.cheetah.customweapons.effect.HitActions;
+import com.cheetah.customweapons.effect.Proc;
+import com.cheetah.customweapons.state.TrackedEffects;
+import com.cheetah.customweapons.util.TextTemplate;
+import com.cheetah.customweapons.util.TextUtil;
+import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.potion.PotionEffectType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class WeaponConfig {
 
+    /** PDC key holding a weapon's persistent id on created items. */
+    public static final String ID_TAG = "cweapons_id";
+    /** PDC key holding the content hash of the definition a created item was built from. */
+    public static final String CONTENT_TAG = "cweapons_hash";
+    /** PDC key holding the catalog version an item was tagged under by the fallback write-back. */
+    public static final String CATALOG_TAG = "cweapons_catalog";
+    /** PDC key holding the hash of the display name a created item was given, to tell renamed items apart. */
+    public static final String NAME_TAG = "cweapons_name";
+
 	public static class BoostDef {
 		public final String type;
 		public final Double value; // nullable
 		public final Double chance; // nullable
+		public final Double duration; // seconds, nullable
+		public final Proc proc; // chance and cooldown gate; null when the boost always applies
+		public final int abilitySlot; // CooldownTable column for ABILITY boosts, otherwise -1
+		public final int cooldownTicks;
+		public final String displayText; // {boost} text shown in lore
+
+		// Resolved at load
+		public final BoostType boostType; // null when the type is unknown
+		public final int amplifier; // potion amplifier, level defaults to 1
+		public final int effectIndex; // TrackedEffects bit, -1 when not a hold effect
 
-		public BoostDef(String type, Double value, Double chance) {
+		public BoostDef(String type, Double value, Double chance, Double duration,
+				Double cooldown, boolean pseudoRandom, int procSlot, int abilitySlot) {
 			this.type = type;
 			this.value = value;
 			this.chance = chance;
+			this.duration = duration;
+			this.cooldownTicks = cooldown != null ? (int) Math.round(cooldown * 20) : 0;
+			this.proc = procSlot >= 0
+				? new Proc(procSlot, chance != null ? chance : 1, pseudoRandom, cooldownTicks)
+				: null;
+			this.abilitySlot = abilitySlot;
+			this.boostType = BoostType.fromName(type);
+			this.amplifier = Math.max(0, (value != null ? value.intValue() : 1) - 1);
+			this.effectIndex = boostType != null && boostType.category == BoostType.Category.HOLD
+				? TrackedEffects.indexOf(boostType.effectType)
+				: -1;
+			String text = type;
+			if (value != null) text += " x" + value;
+			if (chance != null) text += " (" + (int) Math.round(chance * 100) + "%)";
+			this.displayText = text;
 		}
 	}
 
     public static class WeaponDefinition {
         public final String id;
         public final String persistentKey;
+        // Hash of the weapon's config section; equal hashes mean an unchanged weapon across reloads
+        public final long contentHash;
 
         // Visuals
         public final String weaponNameTemplate; // may contain <colorize:...>
@@ -39,6 +94,8 @@ public class WeaponConfig {
         public final Material material;
         public final Map<String, Integer> weaponEnchants; // unsafe allowed
         public final boolean vanillaEnchants;
+        // Hold boosts with an attribute equivalent are baked into the item instead of applied as effects
+        public final boolean attributeModifiers;
 
         // Back-compat fields (optional)
         public final String legacyDisplayName;
@@ -50,6 +107,25 @@ public class WeaponConfig {
         // Boosts
         public final List<BoostDef> boosts;
 
+        // Boosts resolved at load, split per category for hot paths
+        public final BoostDef[] holdBoosts;
+        public final BoostDef[] attributeBoosts; // hold boosts carried by the item's attribute modifiers
+        public final BoostDef[] abilities;
+        public final int[] holdAmplifiers; // highest hold boost or legacy hold_effects amplifier per TrackedEffects index, -1 for none
+        public final int flameLevel;
+        public final boolean spectral;
+        // On-hit pipelines; empty arrays when the weapon does nothing on hit
+        public final HitAction[] meleeHitActions;
+        public final HitAction[] projectileHitActions;
+        // Gate per action, same index; null entries always apply
+        public final Proc[] meleeHitProcs;
+        public final Proc[] projectileHitProcs;
+
+        // Templates compiled once at load
+        private final TextTemplate nameTemplate;
+        private final List<TextTemplate> loreTemplates;
+        private final TextTemplate boostTemplate;
+
         public WeaponDefinition(
                 String id,
                 String persistentKey,
@@ -61,15 +137,18 @@ public class WeaponConfig {
                 Material material,
                 Map<String, Integer> weaponEnchants,
                 boolean vanillaEnchants,
+                boolean attributeModifiers,
                 String legacyDisplayName,
                 Map<String, Integer> legacyEnchantments,
                 Map<String, Integer> legacyHoldEffects,
                 boolean legacyGiveSpectral,
                 Map<String, Object> legacyBowModifiers,
-                List<BoostDef> boosts
+                List<BoostDef> boosts,
+                long contentHash
         ) {
             this.id = id;
             this.persistentKey = persistentKey;
+            this.contentHash = contentHash;
             this.weaponNameTemplate = weaponNameTemplate;
             this.weaponLoreTemplates = weaponLoreTemplates;
             this.colorized = colorized;
@@ -78,18 +157,178 @@ public class WeaponConfig {
             this.material = material;
             this.weaponEnchants = weaponEnchants;
             this.vanillaEnchants = vanillaEnchants;
+            this.attributeModifiers = attributeModifiers;
             this.legacyDisplayName = legacyDisplayName;
             this.legacyEnchantments = legacyEnchantments;
             this.legacyHoldEffects = legacyHoldEffects;
             this.legacyGiveSpectral = legacyGiveSpectral;
             this.legacyBowModifiers = legacyBowModifiers;
             this.boosts = boosts;
+
+            List<BoostDef> hold = new ArrayList<>();
+            List<BoostDef> attribute = new ArrayList<>();
+            List<BoostDef> abilityBoosts = new ArrayList<>();
+            Object flameLevelObj = legacyBowModifiers.get("flame_level");
+            int flame = (flameLevelObj instanceof Number) ? ((Number) flameLevelObj).intValue() : 0;
+            boolean spectralArrows = Boolean.TRUE.equals(legacyBowModifiers.get("spectral"));
+            List<HitAction> melee = new ArrayList<>();
+            List<HitAction> projectile = new ArrayList<>();
+            List<Proc> meleeProcs = new ArrayList<>();
+            List<Proc> projectileProcs = new ArrayList<>();
+            for (BoostDef b : boosts) {
+                if (b.boostType == null) continue;
+                switch (b.boostType.category) {
+                    case HOLD:
+                        if (attributeModifiers && b.boostType.attribute != null) {
+                            attribute.add(b);
+                        } else {
+                            hold.add(b);
+                        }
+                        break;
+                    case BOW:
+                    case HIT:
+                        break;
+                    case ABILITY:
+                        abilityBoosts.add(b);
+                        break;
+                }
+                HitAction action = HitActions.compile(b);
+                if (action != null) {
+                    projectile.add(action);
+                    projectileProcs.add(b.proc);
+                    if (b.boostType.category == BoostType.Category.HIT) {
+                        melee.add(action);
+                        meleeProcs.add(b.proc);
+                    }
+                }
+                if (b.boostType == BoostType.BOW_FLAME_LEVEL && b.value != null) {
+                    flame = Math.max(flame, b.value.intValue());
+                } else if (b.boostType == BoostType.BOW_SPECTRAL) {
+                    spectralArrows = true;
+                }
+            }
+            this.holdBoosts = hold.toArray(new BoostDef[0]);
+            this.attributeBoosts = attribute.toArray(new BoostDef[0]);
+            this.holdAmplifiers = new int[TrackedEffects.COUNT];
+            Arrays.fill(holdAmplifiers, -1);
+            for (BoostDef b : holdBoosts) {
+                if (b.effectIndex >= 0) holdAmplifiers[b.effectIndex] = Math.max(holdAmplifiers[b.effectIndex], b.amplifier);
+            }
+            // Legacy weapons level their effects the same way; untracked types were warned about at load
+            for (Map.Entry<String, Integer> e : legacyHoldEffects.entrySet()) {
+                PotionEffectType type = PotionEffectType.getByName(e.getKey());
+                int index = type != null ? TrackedEffects.indexOf(type) : -1;
+                if (index >= 0) holdAmplifiers[index] = Math.max(holdAmplifiers[index], Math.max(0, e.getValue() - 1));
+            }
+            this.abilities = abilityBoosts.toArray(new BoostDef[0]);
+            this.flameLevel = flame;
+            this.spectral = spectralArrows;
+            this.meleeHitActions = melee.toArray(new HitAction[0]);
+            this.projectileHitActions = projectile.toArray(new HitAction[0]);
+            this.meleeHitProcs = meleeProcs.toArray(new Proc[0]);
+            this.projectileHitProcs = projectileProcs.toArray(new Proc[0]);
+
+            this.nameTemplate = weaponNameTemplate != null
+                    ? TextTemplate.compileName(weaponNameTemplate, colorized, colors)
+                    : null;
+            List<TextTemplate> compiledLore = new ArrayList<>();
+            if (weaponLoreTemplates != null) {
+                for (String line : weaponLoreTemplates) {
+                    compiledLore.add(TextTemplate.compileLine(line, colors));
+                }
+            }
+            this.loreTemplates = Collections.unmodifiableList(compiledLore);
+            this.boostTemplate = TextTemplate.compileBoostDisplay(boostDisplay, colors);
+        }
+
+        public String renderDisplayName() {
+            if (nameTemplate != null) {
+                return nameTemplate.render(null);
+            }
+            return legacyDisplayName;
+        }
+
+        public List<String> renderLore() {
+            List<String> lore = new ArrayList<>();
+            if (!loreTemplates.isEmpty()) {
+                // Render boosts lines, joined by newlines
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < boosts.size(); i++) {
+                    if (i > 0) sb.append('\n');
+                    BoostDef b = boosts.get(i);
+                    boostTemplate.renderTo(sb, b.displayText);
+                }
+                String joinedBoosts = sb.toString();
+                for (TextTemplate line : loreTemplates) {
+                    sb.setLength(0);
+                    line.renderTo(sb, joinedBoosts);
+                    lore.add(sb.toString());
+                }
+            }
+            if (lore.isEmpty() && legacyHoldEffects != null && !legacyHoldEffects.isEmpty()) {
+                lore.add(TextUtil.applyAmpColors("&7Hold Effects:"));
+                for (Map.Entry<String, Integer> e : legacyHoldEffects.entrySet()) {
+                    lore.add(TextUtil.applyAmpColors("&3" + e.getKey() + " " + e.getValue()));
+                }
+            }
+            return lore;
+        }
+    }
+
+    /**
+     * Color-stripped name and lore of a definition, rendered once at load for the
+     * name + lore fallback matcher.
+     */
+    public static class Fingerprint {
+        public final WeaponDefinition definition;
+        public final String strippedName;
+        public final List<String> strippedLore;
+
+        Fingerprint(WeaponDefinition definition, String strippedName, List<String> strippedLore) {
+            this.definition = definition;
+            this.strippedName = strippedName;
+            this.strippedLore = strippedLore;
+        }
+
+        public boolean matchesLore(List<String> actualLore) {
+            if (actualLore == null || actualLore.size() != strippedLore.size()) return false;
+            for (int i = 0; i < strippedLore.size(); i++) {
+                String actual = actualLore.get(i);
+                if (actual == null || !strippedLore.get(i).equals(ChatColor.stripColor(actual))) return false;
+            }
+            return true;
         }
     }
 
     private final Map<String, WeaponDefinition> definitions = new HashMap<>();
+    // Reverse index persistentKey -> definition so tagged items resolve with one lookup
+    private final Map<String, WeaponDefinition> byPersistentKey = new HashMap<>();
+    // Fallback index (material, stripped name) -> candidates; rejects untagged vanilla items in one lookup
+    private final Map<Material, Map<String, List<Fingerprint>>> fingerprints = new EnumMap<>(Material.class);
+    // Materials any weapon is made of; lets bulk scans skip other stacks without reading their meta
+    private final Set<Material> materials = EnumSet.noneOf(Material.class);
+    private final NamespacedKey idKey;
+    private final NamespacedKey contentKey;
+    private final NamespacedKey nameKey;
+    private final NamespacedKey catalogKey;
+    // Hash over every weapon's content hash; changes whenever any weapon does
+    private final long catalogVersion;
+    // Stamp the id tag onto items the name + lore fallback matched, so they take the PDC path next time
+    private final boolean tagFallbackItems;
+    // Rewrite created items built from an older definition when they are next held or opened
+    private final boolean refreshStaleItems;
+    // Chance or cooldown gated boosts across the catalog; numbers Proc slots
+    private int procCount;
+    // ABILITY boosts across the catalog, indexed by abilitySlot
+    private final List<BoostDef> abilitySlots = new ArrayList<>();
 
-    public WeaponConfig(FileConfiguration config) {
+    public WeaponConfig(FileConfiguration config, Plugin plugin) {
+        this.idKey = new NamespacedKey(plugin, ID_TAG);
+        this.contentKey = new NamespacedKey(plugin, CONTENT_TAG);
+        this.nameKey = new NamespacedKey(plugin, NAME_TAG);
+        this.catalogKey = new NamespacedKey(plugin, CATALOG_TAG);
+        this.tagFallbackItems = config.getBoolean("tag_fallback_items", false);
+        this.refreshStaleItems = config.getBoolean("refresh_stale_items", true);
         ConfigurationSection weapons = config.getConfigurationSection("weapons");
         if (weapons != null) {
             for (String id : weapons.getKeys(false)) {
@@ -109,6 +348,7 @@ public class WeaponConfig {
                     Material material = Material.matchMaterial(matName);
                     if (material == null) material = Material.NETHERITE_SWORD;
                     boolean vanillaEnchants = section.getBoolean("vanillaEnchants", false);
+                    boolean attributeModifiers = section.getBoolean("attribute_modifiers", false);
 
                     Map<String, Integer> enchants = new HashMap<>();
                     ConfigurationSection enchSec = weaponSec.getConfigurationSection("enchants");
@@ -133,7 +373,21 @@ public class WeaponConfig {
                             String type = b.getString("type", "").toUpperCase();
                             Double value = b.isSet("value") ? b.getDouble("value") : null;
                             Double chance = b.isSet("chance") ? b.getDouble("chance") : null;
-                            boosts.add(new BoostDef(type, value, chance));
+                            Double duration = b.isSet("duration") ? b.getDouble("duration") : null;
+                            Double cooldown = b.isSet("cooldown") ? b.getDouble("cooldown") : null;
+                            BoostType boostType = BoostType.fromName(type);
+                            boolean ability = boostType != null && boostType.category == BoostType.Category.ABILITY;
+                            // Only on-hit boosts roll; a chance on a hold or bow-launch boost is shown but gates nothing
+                            boolean rolls = boostType != null && boostType.actsOnHit();
+                            int procSlot = rolls && (chance != null || cooldown != null) ? procCount++ : -1;
+                            int abilitySlot = ability ? abilitySlots.size() : -1;
+                            BoostDef boost = new BoostDef(type, value, chance, duration,
+                                    cooldown, b.getBoolean("pseudo_random", false), procSlot, abilitySlot);
+                            if (ability) abilitySlots.add(boost);
+                            if (boost.boostType == null) {
+                                plugin.getLogger().warning("Weapon '" + id + "' has unknown boost type '" + type + "'; it will be shown but has no effect");
+                            }
+                            boosts.add(boost);
                         }
                     }
 
@@ -148,12 +402,14 @@ public class WeaponConfig {
                             material,
                             Collections.unmodifiableMap(enchants),
                             vanillaEnchants,
+                            attributeModifiers,
                             null,
                             Collections.emptyMap(),
                             Collections.emptyMap(),
                             false,
                             Collections.emptyMap(),
-                            Collections.unmodifiableList(boosts)
+                            Collections.unmodifiableList(boosts),
+                            contentHash(section)
                     ));
                     continue;
                 }
@@ -176,6 +432,13 @@ public class WeaponConfig {
                 ConfigurationSection effectsSec = section.getConfigurationSection("hold_effects");
                 if (effectsSec != null) {
                     for (String eff : effectsSec.getKeys(false)) {
+                        PotionEffectType type = PotionEffectType.getByName(eff.toUpperCase());
+                        if (type == null) {
+                            plugin.getLogger().warning("Weapon '" + id + "' has unknown hold effect '" + eff + "'");
+                        } else if (TrackedEffects.indexOf(type) < 0) {
+                            plugin.getLogger().warning("Weapon '" + id + "' has hold effect '" + eff
+                                    + "', which is shown but not applied; hold effects are SPEED, STRENGTH, RESISTANCE and SLOWNESS");
+                        }
                         holdEffects.put(eff.toUpperCase(), effectsSec.getInt(eff));
                     }
                 }
@@ -202,15 +465,54 @@ public class WeaponConfig {
                         material,
                         Collections.emptyMap(),
                         false,
+                        false,
                         displayName,
                         Collections.unmodifiableMap(enchantments),
                         Collections.unmodifiableMap(holdEffects),
                         giveSpectral,
                         Collections.unmodifiableMap(bowModifiers),
-                        Collections.emptyList()
+                        Collections.emptyList(),
+                        contentHash(section)
                 ));
             }
         }
+        long version = 0xcbf29ce484222325L;
+        for (WeaponDefinition def : new TreeMap<>(definitions).values()) {
+            byPersistentKey.putIfAbsent(def.persistentKey, def);
+            materials.add(def.material);
+            indexFingerprint(def);
+            version = (version ^ def.contentHash) * 0x100000001b3L;
+        }
+        this.catalogVersion = version;
+    }
+
+    // FNV-1a over the section's leaf values in key order, so unrelated edits elsewhere in the file don't count
+    static long contentHash(ConfigurationSection section) {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<String, Object> e : new TreeMap<>(section.getValues(true)).entrySet()) {
+            if (e.getValue() instanceof ConfigurationSection) continue;
+            String entry = e.getKey() + '=' + e.getValue() + '\n';
+            for (int i = 0; i < entry.length(); i++) {
+                hash ^= entry.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private void indexFingerprint(WeaponDefinition def) {
+        String name = def.renderDisplayName();
+        List<String> lore = def.renderLore();
+        // Items without a name or lore can never satisfy the fallback matcher
+        if (name == null || lore.isEmpty()) return;
+        List<String> strippedLore = new ArrayList<>(lore.size());
+        for (String line : lore) {
+            strippedLore.add(ChatColor.stripColor(line));
+        }
+        String strippedName = ChatColor.stripColor(name);
+        fingerprints.computeIfAbsent(def.material, m -> new HashMap<>())
+                .computeIfAbsent(strippedName, n -> new ArrayList<>(1))
+                .add(new Fingerprint(def, strippedName, Collections.unmodifiableList(strippedLore)));
     }
 
     public Map<String, WeaponDefinition> getDefinitions() {
@@ -220,6 +522,107 @@ public class WeaponConfig {
     public WeaponDefinition get(String id) {
         return definitions.get(id);
     }
+
+    /**
+     * Resolves item meta to a weapon: the PDC tag first, then the name + lore
+     * fallback for items created by other plugins. Returns null for non-weapons.
+     */
+    public WeaponDefinition identify(Material type, ItemMeta meta) {
+        if (meta == null) return null;
+        WeaponDefinition tagged = identifyByTag(meta);
+        return tagged != null ? tagged : identifyByFingerprint(type, meta);
+    }
+
+    /** The weapon named by the meta's PDC tag, or null when untagged or unknown. */
+    public WeaponDefinition identifyByTag(ItemMeta meta) {
+        String tag = meta.getPersistentDataContainer().get(idKey, PersistentDataType.STRING);
+        return tag != null ? byPersistentKey.get(tag) : null;
+    }
+
+    /** Fallback: identify by display name + lore when another plugin created the item. */
+    public WeaponDefinition identifyByFingerprint(Material type, ItemMeta meta) {
+        if (!meta.hasDisplayName() || !meta.hasLore()) return null;
+        List<Fingerprint> candidates = getFingerprints(type, ChatColor.stripColor(meta.getDisplayName()));
+        if (candidates == null) return null;
+        List<String> actualLore = meta.getLore();
+        for (Fingerprint candidate : candidates) {
+            if (candidate.matchesLore(actualLore)) return candidate.definition;
+        }
+        return null;
+    }
+
+    /** Whether some weapon is made of the material; stacks of any other type cannot be weapons of this catalog. */
+    public boolean isWeaponMaterial(Material material) {
+        return materials.contains(material);
+    }
+
+    /** Candidates sharing the given material and color-stripped display name, or null. */
+    public List<Fingerprint> getFingerprints(Material material, String strippedName) {
+        Map<String, List<Fingerprint>> byName = fingerprints.get(material);
+        return byName != null ? byName.get(strippedName) : null;
+    }
+
+    public int getProcCount() {
+        return procCount;
+    }
+
+    public int getAbilityCount() {
+        return abilitySlots.size();
+    }
+
+    public BoostDef getAbility(int slot) {
+        return abilitySlots.get(slot);
+    }
+
+    public NamespacedKey getIdKey() {
+        return idKey;
+    }
+
+    public NamespacedKey getContentKey() {
+        return contentKey;
+    }
+
+    public NamespacedKey getNameKey() {
+        return nameKey;
+    }
+
+    /**
+     * Whether a tagged item was built from an older version of its definition.
+     * Unstamped items predate the stamp, unless the fallback write-back tagged
+     * them; those belong to another plugin and are never rebuilt.
+     */
+    public boolean isStale(WeaponDefinition def, ItemMeta meta) {
+        PersistentDataContainer pdc = meta.getPersistentDataContainer();
+        Long hash = pdc.get(contentKey, PersistentDataType.LONG);
+        if (hash != null) return hash != def.contentHash;
+        return !pdc.has(catalogKey, PersistentDataType.LONG);
+    }
+
+    /**
+     * Whether the fallback write-back tagged the item under a different catalog.
+     * Its name and lore may since have changed or moved to another weapon, so the
+     * tag has to be checked against the fingerprints again.
+     */
+    public boolean isOutdatedTag(ItemMeta meta) {
+        Long version = meta.getPersistentDataContainer().get(catalogKey, PersistentDataType.LONG);
+        return version != null && version != catalogVersion;
+    }
+
+    public NamespacedKey getCatalogKey() {
+        return catalogKey;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public boolean isTagFallbackItems() {
+        return tagFallbackItems;
+    }
+
+    public boolean isRefreshStaleItems() {
+        return refreshStaleItems;
+    }
 }
 
 
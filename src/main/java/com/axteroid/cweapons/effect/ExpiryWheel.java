@@ -0,0 +1,214 @@
+package com.cheetah.customweapons.effect;
+
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * One shared expiry schedule for timed weapon effects, as a hashed timing wheel
+ * advanced once per tick. Scheduling an effect that is already pending for the
+ * same entity extends it in place instead of adding another task, so an early
+ * expiry can never cut a newer effect short.
+ *
+ * Entries sit in the slot of the deadline they were scheduled with. An extended
+ * entry is moved when its old slot comes round, keeping schedule, extend and
+ * cancel O(1). Main thread only.
+ *
+ * On Folia there is no shared tick to turn the wheel. Each expiry is then one
+ * delayed task on the entity's own scheduler, and an extended deadline
+ * re-arms that task when it runs.
+ */
+public class ExpiryWheel {
+
+    private static final int SLOTS = 512; // power of two; longer delays wrap and are re-slotted
+
+    /** What a pending expiry is for: one entry per entity and effect name. */
+    public record Key(UUID entityId, String effect) {}
+
+    private static final class Entry {
+        final Key key;
+        Runnable onExpire;
+        long deadline;
+        boolean cancelled;
+        Entry next;
+
+        Entry(Key key, Runnable onExpire, long deadline) {
+            this.key = key;
+            this.onExpire = onExpire;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class RegionEntry {
+        volatile long deadlineNanos;
+        volatile Consumer<Entity> onExpire;
+    }
+
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final Plugin plugin;
+    private final PluginMetrics metrics;
+    private final PluginScheduler scheduler;
+    private final Entry[] slots = new Entry[SLOTS];
+    private final Map<Key, Entry> pending = new HashMap<>();
+    private final Map<Key, RegionEntry> regionPending = new ConcurrentHashMap<>();
+    private long now;
+    private PluginScheduler.Task task;
+
+    public ExpiryWheel(Plugin plugin, PluginMetrics metrics, PluginScheduler scheduler) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+    }
+
+    public void start() {
+        if (task == null && !scheduler.isRegionized()) {
+            task = scheduler.runGlobalTimer(this::advance, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops the wheel and runs every pending expiry, so nothing timed outlives the plugin.
+     * Folia tasks are dropped with the plugin; their entities cannot be touched from here.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        regionPending.clear();
+        Entry[] remaining = pending.values().toArray(new Entry[0]);
+        pending.clear();
+        for (int i = 0; i < slots.length; i++) slots[i] = null;
+        for (Entry e : remaining) {
+            fire(e);
+        }
+    }
+
+    /**
+     * Runs {@code onExpire} on the entity after {@code ticks}, unless it is gone by then.
+     * If the effect is already pending for the entity its deadline moves to whichever
+     * is later and the newer callback replaces the old.
+     */
+    public void schedule(Entity target, String effect, int ticks, Consumer<Entity> onExpire) {
+        Key key = new Key(target.getUniqueId(), effect);
+        if (scheduler.isRegionized()) {
+            scheduleOnRegion(target, key, ticks, onExpire);
+            return;
+        }
+        UUID targetId = target.getUniqueId();
+        schedule(key, ticks, () -> {
+            Entity entity = Bukkit.getEntity(targetId);
+            if (entity != null) onExpire.accept(entity);
+        });
+    }
+
+    private void schedule(Key key, int ticks, Runnable onExpire) {
+        long deadline = now + Math.max(1, ticks);
+        Entry e = pending.get(key);
+        if (e != null) {
+            if (deadline > e.deadline) e.deadline = deadline;
+            e.onExpire = onExpire;
+            metrics.expiriesExtended.increment();
+            return;
+        }
+        e = new Entry(key, onExpire, deadline);
+        pending.put(key, e);
+        link(e);
+        metrics.expiriesScheduled.increment();
+    }
+
+    /** Drops a pending expiry without running it; returns whether one was pending. */
+    public boolean cancel(Key key) {
+        if (scheduler.isRegionized()) return regionPending.remove(key) != null;
+        Entry e = pending.remove(key);
+        if (e == null) return false;
+        e.cancelled = true; // unlinked lazily when its slot comes round
+        return true;
+    }
+
+    /** Pending expiries; zero lets bulk callers skip their per-entity cancels. */
+    public int size() {
+        return pending.size() + regionPending.size();
+    }
+
+    // Called on the entity's region thread, the only one scheduling for that entity
+    private void scheduleOnRegion(Entity target, Key key, int ticks, Consumer<Entity> onExpire) {
+        long deadline = System.nanoTime() + Math.max(1, ticks) * NANOS_PER_TICK;
+        RegionEntry e = regionPending.get(key);
+        if (e != null) {
+            if (deadline > e.deadlineNanos) e.deadlineNanos = deadline;
+            e.onExpire = onExpire;
+            metrics.expiriesExtended.increment();
+            return;
+        }
+        e = new RegionEntry();
+        e.deadlineNanos = deadline;
+        e.onExpire = onExpire;
+        regionPending.put(key, e);
+        metrics.expiriesScheduled.increment();
+        armOnRegion(target, key, e, ticks);
+    }
+
+    private void armOnRegion(Entity target, Key key, RegionEntry e, long delayTicks) {
+        scheduler.runAtEntityLater(target, () -> {
+            if (regionPending.get(key) != e) return; // cancelled
+            long remaining = e.deadlineNanos - System.nanoTime();
+            if (remaining > NANOS_PER_TICK / 2) {
+                armOnRegion(target, key, e, (remaining + NANOS_PER_TICK - 1) / NANOS_PER_TICK);
+                return;
+            }
+            regionPending.remove(key, e);
+            metrics.expiriesFired.increment();
+            try {
+                e.onExpire.accept(target);
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Error expiring " + key.effect() + " for " + key.entityId() + ": " + ex.getMessage());
+            }
+        }, () -> regionPending.remove(key, e), delayTicks);
+    }
+
+    private void link(Entry e) {
+        int slot = (int) (e.deadline & (SLOTS - 1));
+        e.next = slots[slot];
+        slots[slot] = e;
+    }
+
+    private void advance() {
+        now++;
+        int slot = (int) (now & (SLOTS - 1));
+        Entry e = slots[slot];
+        if (e == null) return;
+        slots[slot] = null;
+        while (e != null) {
+            Entry next = e.next;
+            e.next = null;
+            if (!e.cancelled) {
+                if (e.deadline > now) {
+                    link(e); // extended, or a later round of the wheel
+                } else {
+                    pending.remove(e.key);
+                    fire(e);
+                }
+            }
+            e = next;
+        }
+    }
+
+    private void fire(Entry e) {
+        metrics.expiriesFired.increment();
+        try {
+            e.onExpire.run();
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Error expiring " + e.key.effect() + " for " + e.key.entityId() + ": " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.cheetah.customweapons.effect;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+/**
+ * One on-hit behavior of a weapon, compiled from a boost at config load and run
+ * after a melee or projectile hit has gone through. {@code source} is the
+ * attacker for melee hits and the projectile for arrows.
+ *
+ * Actions run on the target's thread and must not change the attacker; on Folia
+ * a shooter can be in another region. Actions that do are {@link OnAttacker}.
+ */
+@FunctionalInterface
+public interface HitAction {
+
+    void apply(Player attacker, Entity source, LivingEntity target, double damage, ExpiryWheel expiries);
+
+    /** An action that only changes the attacker, such as lifesteal; runs on the attacker's thread. */
+    @FunctionalInterface
+    interface OnAttacker extends HitAction {}
+}
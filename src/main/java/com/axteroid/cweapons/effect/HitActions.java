@@ -0,0 +1,88 @@
+package com.cheetah.customweapons.effect;
+
+import com.cheetah.customweapons.config.WeaponConfig;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.util.Vector;
+
+
+/**
+ * Compiles boosts into {@link HitAction}s. All numbers are read and converted
+ * here, once per config load, so an action only touches the entities involved.
+ */
+public final class HitActions {
+
+    private static final String GLOW = "glow";
+
+    private HitActions() {}
+
+    /** The action for a boost, or null when the boost does nothing on hit. */
+    public static HitAction compile(WeaponConfig.BoostDef boost) {
+        if (boost.boostType == null) return null;
+        switch (boost.boostType) {
+            case BOW_GLOW: {
+                int ticks = seconds(boost.value, 10);
+                return (attacker, source, target, damage, expiries) -> glow(target, ticks, expiries);
+            }
+            case HIT_IGNITE: {
+                int ticks = seconds(boost.value, 4);
+                return (attacker, source, target, damage, expiries) -> target.setFireTicks(Math.max(target.getFireTicks(), ticks));
+            }
+            case HIT_KNOCKBACK: {
+                double strength = boost.value != null ? boost.value : 1;
+                return (attacker, source, target, damage, expiries) -> knockback(source, target, strength);
+            }
+            case HIT_LIFESTEAL: {
+                double fraction = boost.value != null ? boost.value : 0.1;
+                return (HitAction.OnAttacker) (attacker, source, target, damage, expiries) -> heal(attacker, damage * fraction);
+            }
+            case HIT_SLOWNESS:
+            case HIT_WEAKNESS:
+            case HIT_POISON:
+            case HIT_WITHER:
+            case HIT_BLINDNESS: {
+                PotionEffect effect = new PotionEffect(boost.boostType.effectType,
+                        seconds(boost.duration, 3), boost.amplifier);
+                return (attacker, source, target, damage, expiries) -> target.addPotionEffect(effect);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static int seconds(Double value, double fallback) {
+        return (int) Math.round((value != null ? value : fallback) * 20);
+    }
+
+    // Repeated hits extend the glow through the shared wheel rather than stacking timers
+    private static void glow(Entity target, int ticks, ExpiryWheel expiries) {
+        target.setGlowing(true);
+        expiries.schedule(target, GLOW, ticks, glowing -> glowing.setGlowing(false));
+    }
+
+    /**
+     * Ends a pending glow now, for an entity about to be saved. The glowing flag is
+     * stored with it, and its expiry cannot reach it once it is unloaded.
+     */
+    public static void endGlow(Entity entity, ExpiryWheel expiries) {
+        if (expiries.cancel(new ExpiryWheel.Key(entity.getUniqueId(), GLOW))) entity.setGlowing(false);
+    }
+
+    // Away from the swing or the arrow; a shooter's own position may belong to another region
+    private static void knockback(Entity source, Entity target, double strength) {
+        Vector push = target.getLocation().toVector().subtract(source.getLocation().toVector()).setY(0);
+        if (push.lengthSquared() < 1.0E-4) return;
+        push.normalize().multiply(0.4 * strength).setY(0.1 * strength);
+        target.setVelocity(target.getVelocity().add(push));
+    }
+
+    private static void heal(Player attacker, double amount) {
+        if (amount <= 0 || attacker.isDead()) return;
+        AttributeInstance maxHealth = attacker.getAttribute(Attribute.GENERIC_MAX_HEALTH);
+        double cap = maxHealth != null ? maxHealth.getValue() : 20.0;
+        attacker.setHealth(Math.min(cap, attacker.getHealth() + amount));
+    }
+}
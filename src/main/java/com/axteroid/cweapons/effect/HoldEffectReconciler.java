@@ -0,0 +1,81 @@
+package com.cheetah.customweapons.effect;
+
+import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.state.EffectContributions;
+import com.cheetah.customweapons.state.PlayerState;
+import com.cheetah.customweapons.state.TrackedEffects;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+/**
+ * Brings a player's hold effects in line with what their hands and armor grant.
+ * Contributions are counted per slot in {@link EffectContributions}; only the
+ * effect types whose winning amplifier changed, or that went missing, are touched.
+ * Beacon and potion effects of the same type are left in place.
+ */
+public class HoldEffectReconciler {
+
+    private final PluginMetrics metrics;
+
+    public HoldEffectReconciler(PluginMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void reconcile(Player player, PlayerState state, WeaponConfig.WeaponDefinition main, WeaponConfig.WeaponDefinition off) {
+        EffectContributions contributions = state.contributions;
+        int changed = contributions.set(EffectContributions.MAIN_HAND, main)
+                | contributions.set(EffectContributions.OFF_HAND, off);
+        applyDelta(player, state, changed);
+    }
+
+    /** Sets what an armor slot grants, from {@link EffectContributions#HEAD} to {@link EffectContributions#FEET}. */
+    public void reconcileArmor(Player player, PlayerState state, int source, WeaponConfig.WeaponDefinition def) {
+        applyDelta(player, state, state.contributions.set(source, def));
+    }
+
+    /** Removes every hold effect this plugin applied to the player. */
+    public void clear(Player player, PlayerState state) {
+        applyDelta(player, state, state.contributions.clear());
+    }
+
+    // Effects whose winner changed, plus any granted but missing, e.g. after milk
+    private void applyDelta(Player player, PlayerState state, int changed) {
+        EffectContributions contributions = state.contributions;
+        int dirty = changed | (contributions.mask() ^ state.effectMask);
+        for (int i = 0; dirty != 0; i++, dirty >>>= 1) {
+            if ((dirty & 1) == 0) continue;
+            int bit = 1 << i;
+            int target = contributions.winner(i);
+            boolean present = (state.effectMask & bit) != 0;
+            if (target < 0) {
+                if (present) removeOwn(player, state, i);
+                state.effectMask &= ~bit;
+                continue;
+            }
+            if (present && state.amplifiers[i] == target) continue;
+            // A higher level replaces in place; a lower one would stay hidden behind the old effect
+            if (present && state.amplifiers[i] > target) removeOwn(player, state, i);
+            player.addPotionEffect(TrackedEffects.holdEffect(i, target));
+            metrics.effectsApplied.increment();
+            state.amplifiers[i] = target;
+            state.effectMask |= bit;
+        }
+    }
+
+    // Removing a type drops every instance of it, including beacon or potion effects showing
+    // on top or hidden beneath ours; each of those is put back
+    private void removeOwn(Player player, PlayerState state, int index) {
+        PotionEffectType type = TrackedEffects.type(index);
+        PotionEffect active = player.getPotionEffect(type);
+        player.removePotionEffect(type);
+        metrics.effectsRemoved.increment();
+        for (PotionEffect e = active; e != null; e = e.getHiddenPotionEffect()) {
+            if (TrackedEffects.isHoldEffect(e, state.amplifiers[index])) continue;
+            // Without its hidden chain, which may still hold ours
+            player.addPotionEffect(new PotionEffect(e.getType(), e.getDuration(), e.getAmplifier(),
+                    e.isAmbient(), e.hasParticles(), e.hasIcon()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cheetah.customweapons.effect;
+
+/**
+ * The roll in front of a chance- or cooldown-gated boost, precomputed at load.
+ * {@link #slot} indexes the per-player proc counters in
+ * {@link com.cheetah.customweapons.state.PlayerState}.
+ */
+public final class Proc {
+
+    public final int slot;
+    public final double chance;
+    // Pseudo-random distribution step: the n-th roll after a proc succeeds with n * prdStep; 0 for independent rolls
+    public final double prdStep;
+    public final int cooldownTicks;
+
+    public Proc(int slot, double chance, boolean pseudoRandom, int cooldownTicks) {
+        this.slot = slot;
+        this.chance = Math.max(0, Math.min(1, chance));
+        this.prdStep = pseudoRandom && this.chance > 0 && this.chance < 1 ? prdConstant(this.chance) : 0;
+        this.cooldownTicks = Math.max(0, cooldownTicks);
+    }
+
+    // Below this chance the exact search gets slow, as each step costs about 1/C rolls and C shrinks with p squared
+    private static final double SMALL_CHANCE = 0.01;
+
+    // Step C whose escalating rolls average out to one proc every 1/p hits, found by bisection
+    static double prdConstant(double p) {
+        // Small steps leave a proc about sqrt(pi / 2C) rolls apart; already within 1% at p = 0.01
+        if (p < SMALL_CHANCE) return Math.PI / 2 * p * p;
+        double low = 0;
+        double high = p;
+        for (int i = 0; i < 60; i++) {
+            double mid = (low + high) / 2;
+            if (averageChance(mid) < p) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static double averageChance(double step) {
+        double procBefore = 0;
+        double expectedRolls = 0;
+        int maxRolls = (int) Math.ceil(1 / step);
+        for (int n = 1; n <= maxRolls; n++) {
+            double procNow = Math.min(1, n * step) * (1 - procBefore);
+            procBefore += procNow;
+            expectedRolls += n * procNow;
+        }
+        return 1 / expectedRolls;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cheetah.customweapons.effect;
+
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.state.PlayerState;
+
+/**
+ * Rolls {@link Proc}s against a player's own random stream and counters, so
+ * rolls never contend on a shared {@code Random} and allocate nothing.
+ */
+public final class ProcEngine {
+
+    private final PluginMetrics metrics;
+
+    public ProcEngine(PluginMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Whether the proc fires for this player at {@code tick}; updates its streak and cooldown. */
+    public boolean roll(PlayerState state, Proc proc, int tick) {
+        int slot = proc.slot;
+        if (slot >= state.procMisses.length) state.growProcSlots(slot + 1);
+        if (tick < state.procReadyAt[slot]) {
+            metrics.procsCoolingDown.increment();
+            return false;
+        }
+        double chance = proc.prdStep > 0
+                ? Math.min(1, proc.prdStep * (state.procMisses[slot] + 1))
+                : proc.chance;
+        metrics.procRolls.increment();
+        if (nextDouble(state) >= chance) {
+            state.procMisses[slot]++;
+            return false;
+        }
+        state.procMisses[slot] = 0;
+        state.procReadyAt[slot] = tick + proc.cooldownTicks;
+        metrics.procHits.increment();
+        return true;
+    }
+
+    // SplitMix64 over the player's seed: [0, 1) with 53 random bits
+    private static double nextDouble(PlayerState state) {
+        long z = (state.rngSeed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
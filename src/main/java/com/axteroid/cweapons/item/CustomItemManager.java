@@ -2,73 +2,86 @@ package com.axteroid.customweapons.item;
 
 import com.axteroid.customweapons.CustomWeapons;
 import com.axteroid.customweapons.config.WeaponConfig;
-import com.axteroid.customweapons.util.TextUtil;
+import com.axteroid.customweapons.metrics.PluginMetrics;
+import com.axteroid.customweapons.scheduler.PluginScheduler;
+import com.google.common.collect.Multimap;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.EquipmentSlotGroup;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-// removed unused import
+import java.util.Locale;
 import java.util.Map;
 
 public class CustomItemManager {
 
-	private static final String TAG_ID = "cweapons_id";
 	private final CustomWeapons plugin;
 
+	// One finished item per weapon, with the catalog it was built from; handed out as clones
+	private static final class Prototypes {
+		final WeaponConfig config;
+		final Map<String, ItemStack> items;
+
+		Prototypes(WeaponConfig config, Map<String, ItemStack> items) {
+			this.config = config;
+			this.items = items;
+		}
+	}
+
+	// Replaced as a whole, so any thread sees a map and the catalog it belongs to
+	private volatile Prototypes prototypes;
+
 	public CustomItemManager(CustomWeapons plugin) {
 		this.plugin = plugin;
+		rebuildPrototypes(plugin.getWeaponConfig());
+	}
+
+	/**
+	 * Rebuilds prototypes for a catalog about to be published; call it before the
+	 * swap, from the thread that publishes. Weapons whose content hash did not
+	 * change since the last build keep their existing prototype.
+	 */
+	public void rebuildPrototypes(WeaponConfig config) {
+		Prototypes previous = prototypes;
+		Map<String, ItemStack> built = new HashMap<>();
+		for (WeaponConfig.WeaponDefinition def : config.getDefinitions().values()) {
+			WeaponConfig.WeaponDefinition old = previous != null ? previous.config.get(def.id) : null;
+			ItemStack prototype = old != null && old.contentHash == def.contentHash ? previous.items.get(def.id) : null;
+			built.put(def.id, prototype != null ? prototype : buildItem(config, def));
+		}
+		this.prototypes = new Prototypes(config, Collections.unmodifiableMap(built));
 	}
 
 	public ItemStack createItem(String id) {
-		WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(id);
-		if (def == null) return null;
+		ItemStack prototype = prototypes.items.get(id);
+		return prototype != null ? prototype.clone() : null;
+	}
+
+	/** Builds a finished weapon item from scratch; normally only used for prototypes. */
+	public static ItemStack buildItem(WeaponConfig config, WeaponConfig.WeaponDefinition def) {
 		ItemStack stack = new ItemStack(def.material);
 		ItemMeta meta = stack.getItemMeta();
 		if (meta != null) {
 			// Name
-			String displayName;
-			if (def.weaponNameTemplate != null) {
-				displayName = TextUtil.applyColorizeTag(def.weaponNameTemplate, def.colorized);
-				displayName = TextUtil.applyPlaceholders(displayName, def.colors, null);
-			} else {
-				displayName = def.legacyDisplayName;
-			}
+			String displayName = def.renderDisplayName();
 			if (displayName != null) meta.setDisplayName(displayName);
 
 			// Lore
-			List<String> lore = new ArrayList<>();
-			if (def.weaponLoreTemplates != null && !def.weaponLoreTemplates.isEmpty()) {
-				// Render boosts lines
-				List<String> boostLines = new ArrayList<>();
-				for (WeaponConfig.BoostDef b : def.boosts) {
-					String bText = b.type;
-					if (b.value != null) bText += " x" + b.value;
-					if (b.chance != null) bText += " (" + (int) Math.round(b.chance * 100) + "%)";
-					String rendered = def.boostDisplay.replace("{boost}", bText);
-					rendered = TextUtil.applyPlaceholders(rendered, def.colors, bText);
-					boostLines.add(TextUtil.applyAmpColors(rendered));
-				}
-				String joinedBoosts = String.join("\n", boostLines);
-				for (String line : def.weaponLoreTemplates) {
-					String withColors = TextUtil.applyPlaceholders(line, def.colors, joinedBoosts);
-					withColors = TextUtil.applyAmpColors(withColors);
-					lore.add(withColors);
-				}
-			}
-			if (lore.isEmpty() && def.legacyHoldEffects != null && !def.legacyHoldEffects.isEmpty()) {
-				lore.add(TextUtil.applyAmpColors("&7Hold Effects:"));
-				for (Map.Entry<String, Integer> e : def.legacyHoldEffects.entrySet()) {
-					lore.add(TextUtil.applyAmpColors("&3" + e.getKey() + " " + e.getValue()));
-				}
-			}
+			List<String> lore = def.renderLore();
 			if (!lore.isEmpty()) meta.setLore(lore);
 
 			// Requested: keep items unenchanted (ignore configured enchants)
@@ -82,92 +95,173 @@ public class CustomItemManager {
 				// Older APIs may not have this; safe to ignore
 			}
 			meta.addItemFlags(ItemFlag.HIDE_ATTRIBUTES);
+			if (def.attributeBoosts.length > 0) addAttributeBoosts(config, def, meta);
 
 			PersistentDataContainer pdc = meta.getPersistentDataContainer();
-			pdc.set(plugin.key(TAG_ID), PersistentDataType.STRING, def.persistentKey);
+			pdc.set(config.getIdKey(), PersistentDataType.STRING, def.persistentKey);
+			pdc.set(config.getContentKey(), PersistentDataType.LONG, def.contentHash);
+			if (displayName != null) pdc.set(config.getNameKey(), PersistentDataType.INTEGER, displayName.hashCode());
 			stack.setItemMeta(meta);
 		}
 
 		return stack;
 	}
 
-	public String getItemId(ItemStack stack) {
-		if (stack == null) return null;
-		ItemMeta meta = stack.getItemMeta();
-		if (meta == null) return null;
-		String id = meta.getPersistentDataContainer().get(plugin.key(TAG_ID), PersistentDataType.STRING);
-		if (id != null) {
-			for (WeaponConfig.WeaponDefinition def : plugin.getWeaponConfig().getDefinitions().values()) {
-				if (def.persistentKey.equals(id)) return def.id;
+	// Hold boosts as item modifiers, active in the slots where the weapon counts as held or worn.
+	// Modifiers add up across slots: vanilla applies them by key, so a shared key could not pick the higher one
+	private static void addAttributeBoosts(WeaponConfig config, WeaponConfig.WeaponDefinition def, ItemMeta meta) {
+		// Custom modifiers replace the material's own, so those are copied over first
+		Multimap<Attribute, AttributeModifier> defaults = def.material.asItemType().getDefaultAttributeModifiers();
+		for (Map.Entry<Attribute, AttributeModifier> e : defaults.entries()) {
+			meta.addAttributeModifier(e.getKey(), e.getValue());
+		}
+		EquipmentSlot slot = def.material.getEquipmentSlot();
+		// A key per weapon and hand, so a copy in the other hand neither replaces nor removes this one
+		String namespace = config.getIdKey().getNamespace();
+		String prefix = def.id.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9._-]", "_") + "/boost_";
+		for (int i = 0; i < def.attributeBoosts.length; i++) {
+			WeaponConfig.BoostDef b = def.attributeBoosts[i];
+			double amount = b.boostType.attributePerLevel * (b.amplifier + 1);
+			if (slot == EquipmentSlot.HAND || slot == EquipmentSlot.OFF_HAND) {
+				addAttributeBoost(meta, b, new NamespacedKey(namespace, prefix + i + "/mainhand"), amount, EquipmentSlotGroup.MAINHAND);
+				addAttributeBoost(meta, b, new NamespacedKey(namespace, prefix + i + "/offhand"), amount, EquipmentSlotGroup.OFFHAND);
+			} else {
+				addAttributeBoost(meta, b, new NamespacedKey(namespace, prefix + i), amount, slot.getGroup());
 			}
 		}
+	}
 
-		// Fallback: identify by display name + lore when another plugin created the item
-		final String actualName = meta.hasDisplayName() ? meta.getDisplayName() : null;
-		final List<String> actualLore = meta.hasLore() ? meta.getLore() : null;
-		final Material material = stack.getType();
-
-		for (WeaponConfig.WeaponDefinition def : plugin.getWeaponConfig().getDefinitions().values()) {
-			if (def.material != null && def.material != material) continue;
-			String expectedName = renderDisplayName(def);
-			if (!matchesText(actualName, expectedName)) continue;
-			List<String> expectedLore = renderLore(def);
-			if (!matchesLore(actualLore, expectedLore)) continue;
-			return def.id;
-		}
+	private static void addAttributeBoost(ItemMeta meta, WeaponConfig.BoostDef b, NamespacedKey key, double amount, EquipmentSlotGroup group) {
+		meta.addAttributeModifier(b.boostType.attribute,
+			new AttributeModifier(key, amount, b.boostType.attributeOperation, group));
+	}
 
-		return null;
+	// Writes the id tag into the matched stack itself, so its next lookup is a PDC hit
+	private static boolean tagFallbackItem(WeaponConfig config, WeaponConfig.WeaponDefinition def, ItemStack stack, ItemMeta meta) {
+		PersistentDataContainer pdc = meta.getPersistentDataContainer();
+		pdc.set(config.getIdKey(), PersistentDataType.STRING, def.persistentKey);
+		pdc.set(config.getCatalogKey(), PersistentDataType.LONG, config.getCatalogVersion());
+		return stack.setItemMeta(meta);
+	}
+
+	private static boolean untagFallbackItem(WeaponConfig config, ItemStack stack, ItemMeta meta) {
+		PersistentDataContainer pdc = meta.getPersistentDataContainer();
+		pdc.remove(config.getIdKey());
+		pdc.remove(config.getCatalogKey());
+		return stack.setItemMeta(meta);
 	}
 
-	private String renderDisplayName(WeaponConfig.WeaponDefinition def) {
-		if (def.weaponNameTemplate != null) {
-			String displayName = TextUtil.applyColorizeTag(def.weaponNameTemplate, def.colorized);
-			return TextUtil.applyPlaceholders(displayName, def.colors, null);
+	// A fallback tag from another catalog only stands while the item's name and lore still match a weapon
+	private String recheckFallbackTag(WeaponConfig config, ItemStack stack, ItemMeta meta) {
+		PluginMetrics metrics = plugin.getMetrics();
+		WeaponConfig.WeaponDefinition def = config.identifyByFingerprint(stack.getType(), meta);
+		if (def != null && config.isTagFallbackItems()) {
+			if (tagFallbackItem(config, def, stack, meta)) metrics.idRetagged.increment();
+		} else if (untagFallbackItem(config, stack, meta)) {
+			metrics.idUntagged.increment();
 		}
-		return def.legacyDisplayName;
-	}
-
-	private List<String> renderLore(WeaponConfig.WeaponDefinition def) {
-		List<String> lore = new ArrayList<>();
-		if (def.weaponLoreTemplates != null && !def.weaponLoreTemplates.isEmpty()) {
-			List<String> boostLines = new ArrayList<>();
-			for (WeaponConfig.BoostDef b : def.boosts) {
-				String bText = b.type;
-				if (b.value != null) bText += " x" + b.value;
-				if (b.chance != null) bText += " (" + (int) Math.round(b.chance * 100) + "%)";
-				String rendered = def.boostDisplay.replace("{boost}", bText);
-				rendered = TextUtil.applyPlaceholders(rendered, def.colors, bText);
-				boostLines.add(TextUtil.applyAmpColors(rendered));
-			}
-			String joinedBoosts = String.join("\n", boostLines);
-			for (String line : def.weaponLoreTemplates) {
-				String withColors = TextUtil.applyPlaceholders(line, def.colors, joinedBoosts);
-				withColors = TextUtil.applyAmpColors(withColors);
-				lore.add(withColors);
-			}
+		if (def == null) {
+			metrics.idMisses.increment();
+			return null;
 		}
-		if (lore.isEmpty() && def.legacyHoldEffects != null && !def.legacyHoldEffects.isEmpty()) {
-			lore.add(TextUtil.applyAmpColors("&7Hold Effects:"));
-			for (Map.Entry<String, Integer> e : def.legacyHoldEffects.entrySet()) {
-				lore.add(TextUtil.applyAmpColors("&3" + e.getKey() + " " + e.getValue()));
+		metrics.idFallbackHits.increment();
+		return def.id;
+	}
+
+	/**
+	 * Rebuilds the stack in place if it was created from an older definition; for items touched outside the hands.
+	 * Stacks of a material no weapon uses are skipped before their meta is read. A weapon whose material changed
+	 * is refreshed once it is next held instead.
+	 */
+	public void refreshIfStale(ItemStack stack) {
+		if (stack == null) return;
+		WeaponConfig config = plugin.getWeaponConfig();
+		if (!config.isRefreshStaleItems() || !config.isWeaponMaterial(stack.getType()) || !stack.hasItemMeta()) return;
+		ItemMeta meta = stack.getItemMeta();
+		WeaponConfig.WeaponDefinition def = config.identifyByTag(meta);
+		if (def != null && config.isStale(def, meta)) refresh(def, stack, meta);
+	}
+
+	// Copies over only what the plugin owns: lore, the name unless renamed, its attribute modifiers and tags.
+	// Enchants, repair cost, wear and other plugins' data stay as they are
+	private void refresh(WeaponConfig.WeaponDefinition def, ItemStack stack, ItemMeta meta) {
+		Prototypes current = prototypes;
+		// Prototypes are published just before their catalog; only rebuild from those of the item's own
+		if (current.config.get(def.id) != def) return;
+		ItemStack prototype = current.items.get(def.id);
+		if (prototype == null) return;
+		WeaponConfig config = current.config;
+		ItemMeta fresh = prototype.getItemMeta();
+		PersistentDataContainer pdc = meta.getPersistentDataContainer();
+		if (!isRenamed(config, meta)) {
+			meta.setDisplayName(fresh.hasDisplayName() ? fresh.getDisplayName() : null);
+			Integer name = fresh.getPersistentDataContainer().get(config.getNameKey(), PersistentDataType.INTEGER);
+			if (name != null) {
+				pdc.set(config.getNameKey(), PersistentDataType.INTEGER, name);
+			} else {
+				pdc.remove(config.getNameKey());
 			}
 		}
-		return lore;
+		meta.setLore(fresh.hasLore() ? fresh.getLore() : null);
+		replaceOwnModifiers(config, meta, fresh);
+		meta.addItemFlags(ItemFlag.HIDE_ATTRIBUTES);
+		pdc.set(config.getIdKey(), PersistentDataType.STRING, def.persistentKey);
+		pdc.set(config.getContentKey(), PersistentDataType.LONG, def.contentHash);
+		if (stack.getType() != prototype.getType()) stack.setType(prototype.getType());
+		if (stack.setItemMeta(meta)) plugin.getMetrics().itemsRefreshed.increment();
 	}
 
-	private boolean matchesText(String actual, String expected) {
-		if (actual == null || expected == null) return false;
-		if (actual.equals(expected)) return true;
-		return ChatColor.stripColor(actual).equals(ChatColor.stripColor(expected));
+	// A name other than the one stamped at creation was given in an anvil or by another plugin.
+	// Items from before the stamp count as renamed only if the name has no color codes, as anvil names don't
+	private static boolean isRenamed(WeaponConfig config, ItemMeta meta) {
+		if (!meta.hasDisplayName()) return false;
+		String name = meta.getDisplayName();
+		Integer stamped = meta.getPersistentDataContainer().get(config.getNameKey(), PersistentDataType.INTEGER);
+		return stamped != null ? stamped != name.hashCode() : name.indexOf(ChatColor.COLOR_CHAR) < 0;
 	}
 
-	private boolean matchesLore(List<String> actual, List<String> expected) {
-		if (expected == null || expected.isEmpty()) return false;
-		if (actual == null || actual.size() != expected.size()) return false;
-		for (int i = 0; i < expected.size(); i++) {
-			if (!matchesText(actual.get(i), expected.get(i))) return false;
+	// Swaps the boost modifiers under this plugin's keys; modifiers other plugins added stay
+	private static void replaceOwnModifiers(WeaponConfig config, ItemMeta meta, ItemMeta fresh) {
+		String namespace = config.getIdKey().getNamespace();
+		// Without explicit modifiers the item used its material's, which the boosts would otherwise replace
+		boolean materialDefaults = !meta.hasAttributeModifiers();
+		if (!materialDefaults) {
+			for (Map.Entry<Attribute, AttributeModifier> e : meta.getAttributeModifiers().entries()) {
+				if (e.getValue().getKey().getNamespace().equals(namespace)) meta.removeAttributeModifier(e.getKey(), e.getValue());
+			}
+		}
+		if (!fresh.hasAttributeModifiers()) return;
+		for (Map.Entry<Attribute, AttributeModifier> e : fresh.getAttributeModifiers().entries()) {
+			if (materialDefaults || e.getValue().getKey().getNamespace().equals(namespace)) {
+				meta.addAttributeModifier(e.getKey(), e.getValue());
+			}
 		}
-		return true;
+	}
+
+	public String getItemId(ItemStack stack) {
+		if (stack == null) return null;
+		ItemMeta meta = stack.getItemMeta();
+		PluginMetrics metrics = plugin.getMetrics();
+		if (meta == null) {
+			metrics.idMisses.increment();
+			return null;
+		}
+		WeaponConfig config = plugin.getWeaponConfig();
+		WeaponConfig.WeaponDefinition def = config.identifyByTag(meta);
+		if (def != null) {
+			if (config.isOutdatedTag(meta)) return recheckFallbackTag(config, stack, meta);
+			metrics.idPdcHits.increment();
+			if (config.isRefreshStaleItems() && config.isStale(def, meta)) refresh(def, stack, meta);
+			return def.id;
+		}
+		def = config.identifyByFingerprint(stack.getType(), meta);
+		if (def != null) {
+			metrics.idFallbackHits.increment();
+			if (config.isTagFallbackItems() && tagFallbackItem(config, def, stack, meta)) metrics.idMigrated.increment();
+			return def.id;
+		}
+		metrics.idMisses.increment();
+		return null;
 	}
 
 	public boolean isCustomWeapon(ItemStack stack) {
@@ -180,6 +274,26 @@ public class CustomItemManager {
 			player.getInventory().addItem(item);
 		}
 	}
+
+	/**
+	 * Gives one copy of the weapon to each player, plus a spectral arrow for bows
+	 * that shoot them. Each player's inventory is changed on their own thread.
+	 * Returns how many players were given the weapon, 0 for an unknown id.
+	 */
+	public int giveAll(Collection<? extends Player> players, String id) {
+		Prototypes current = prototypes;
+		ItemStack prototype = current.items.get(id);
+		if (prototype == null) return 0;
+		boolean spectral = current.config.get(id).spectral;
+		PluginScheduler scheduler = plugin.getScheduler();
+		for (Player player : players) {
+			scheduler.runAtEntity(player, () -> {
+				player.getInventory().addItem(prototype.clone());
+				if (spectral) player.getInventory().addItem(new ItemStack(Material.SPECTRAL_ARROW, 1));
+			});
+		}
+		return players.size();
+	}
 }
 
 
@@ -0,0 +1,55 @@
+package com.cheetah.customweapons.item;
+
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.state.PlayerState;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Remembers the weapon id last resolved for each player's hands so that an
+ * unchanged held stack does not have its meta cloned again.
+ *
+ * A hand keeps a private copy of the stack it resolved in the player's
+ * {@link PlayerState}. Later lookups compare the held stack against that copy by
+ * type and then {@link ItemStack#isSimilar}, which compares the underlying item
+ * data without building an ItemMeta.
+ */
+public class HeldItemCache {
+
+    public static final int MAIN_HAND = 0;
+    public static final int OFF_HAND = 1;
+
+    private final CustomItemManager itemManager;
+    private final PluginMetrics metrics;
+
+    public HeldItemCache(CustomItemManager itemManager, PluginMetrics metrics) {
+        this.itemManager = itemManager;
+        this.metrics = metrics;
+    }
+
+    public String resolve(PlayerState state, int hand, ItemStack stack) {
+        if (stack == null || stack.getType() == Material.AIR) {
+            state.heldSnapshots[hand] = null;
+            state.heldIds[hand] = null;
+            return null;
+        }
+        ItemStack snapshot = state.heldSnapshots[hand];
+        if (snapshot != null && snapshot.getType() == stack.getType() && snapshot.isSimilar(stack)) {
+            metrics.heldCacheHits.increment();
+            return state.heldIds[hand];
+        }
+        metrics.heldCacheMisses.increment();
+        String id = itemManager.getItemId(stack);
+        state.heldIds[hand] = id;
+        // Copy so later edits to the live stack are seen as a change
+        state.heldSnapshots[hand] = stack.clone();
+        return id;
+    }
+
+    /** Whether the hand still holds the stack last resolved; never reads item meta. */
+    public boolean isCurrent(PlayerState state, int hand, ItemStack stack) {
+        ItemStack snapshot = state.heldSnapshots[hand];
+        if (stack == null || stack.getType() == Material.AIR) return snapshot == null;
+        return snapshot != null && snapshot.getType() == stack.getType() && snapshot.isSimilar(stack);
+    }
+}
@@ -0,0 +1,181 @@
+package com.cheetah.customweapons.listener;
+
+import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.item.HeldItemCache;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import com.cheetah.customweapons.state.CooldownTable;
+import com.cheetah.customweapons.state.PlayerState;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+
+import java.util.BitSet;
+
+/**
+ * Right-click abilities and their cooldown action bar. Cooldowns live in the
+ * plugin's {@link CooldownTable}; the action bar is refreshed in one pass per
+ * tick over the players that have a cooldown running. On Folia each such player
+ * gets their own refresh task on their region instead, ending once they are ready.
+ */
+public class AbilityListener implements Listener {
+	private final CustomWeapons plugin;
+	private final HeldItemCache heldItemCache;
+	private final CooldownTable cooldowns;
+	private final PluginMetrics metrics;
+	private final PluginScheduler scheduler;
+	// Paper only: the refresh pass and the rows with a cooldown that may still be running
+	private final PluginScheduler.Task barTask;
+	private final BitSet activeRows = new BitSet();
+
+	public AbilityListener(CustomWeapons plugin, HeldItemCache heldItemCache) {
+		this.plugin = plugin;
+		this.heldItemCache = heldItemCache;
+		this.cooldowns = plugin.getCooldowns();
+		this.metrics = plugin.getMetrics();
+		this.scheduler = plugin.getScheduler();
+		this.barTask = scheduler.isRegionized() ? null : scheduler.runGlobalTimer(this::showCooldowns, 1L, 1L);
+	}
+
+	public void shutdown() {
+		if (barTask != null) barTask.cancel();
+	}
+
+	@EventHandler(priority = EventPriority.HIGH)
+	public void onInteract(PlayerInteractEvent event) {
+		if (!event.getAction().isRightClick() || event.useItemInHand() == Event.Result.DENY) return;
+		ItemStack item = event.getItem();
+		if (item == null) return;
+		Player player = event.getPlayer();
+		PlayerState state = plugin.getPlayerStates().getOrCreate(player.getUniqueId());
+		int hand = event.getHand() == EquipmentSlot.OFF_HAND ? HeldItemCache.OFF_HAND : HeldItemCache.MAIN_HAND;
+		String id = heldItemCache.resolve(state, hand, item);
+		if (id == null) return;
+		WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(id);
+		if (def == null || def.abilities.length == 0) return;
+
+		if (state.cooldownRow < 0) state.cooldownRow = cooldowns.acquire(player.getUniqueId());
+		int row = state.cooldownRow;
+		int now = scheduler.currentTick();
+		for (WeaponConfig.BoostDef ability : def.abilities) {
+			if (cooldowns.remaining(row, ability.abilitySlot, now) > 0) {
+				metrics.abilitiesCoolingDown.increment();
+				continue;
+			}
+			perform(player, ability);
+			metrics.abilitiesUsed.increment();
+			if (ability.cooldownTicks > 0) {
+				cooldowns.start(row, ability.abilitySlot, now, ability.cooldownTicks);
+				showCooldownsFrom(player, state);
+			}
+		}
+	}
+
+	private void showCooldownsFrom(Player player, PlayerState state) {
+		if (barTask != null) {
+			activeRows.set(state.cooldownRow);
+		} else if (state.cooldownBarTask == null) {
+			state.cooldownBarTask = scheduler.runAtEntityTimer(player, () -> {
+				if (state.cooldownRow < 0 || showCooldown(player, state, plugin.getWeaponConfig(), scheduler.currentTick())) {
+					state.cooldownBarTask.cancel();
+					state.cooldownBarTask = null;
+				}
+			}, 1L, 1L);
+		}
+	}
+
+	private void perform(Player player, WeaponConfig.BoostDef ability) {
+		switch (ability.boostType) {
+			case ABILITY_DASH: {
+				double strength = ability.value != null ? ability.value : 1.5;
+				Vector push = player.getLocation().getDirection().multiply(strength);
+				push.setY(Math.max(0.2, Math.min(0.5, push.getY())));
+				player.setVelocity(push);
+				break;
+			}
+			case ABILITY_SHIELD_BASH: {
+				double strength = ability.value != null ? ability.value : 1;
+				Vector facing = player.getLocation().getDirection().setY(0);
+				if (facing.lengthSquared() < 1.0E-4) return;
+				facing.normalize();
+				for (Entity nearby : player.getNearbyEntities(3, 2, 3)) {
+					if (!(nearby instanceof LivingEntity target)) continue;
+					Vector away = target.getLocation().toVector().subtract(player.getLocation().toVector()).setY(0);
+					if (away.lengthSquared() < 1.0E-4 || away.normalize().dot(facing) < 0.5) continue;
+					target.setVelocity(target.getVelocity().add(away.multiply(0.8 * strength).setY(0.35)));
+				}
+				break;
+			}
+			default:
+				break;
+		}
+	}
+
+	// Release the cooldown row before InventoryListener drops the player's state
+	@EventHandler(priority = EventPriority.LOW)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		PlayerState state = plugin.getPlayerStates().get(event.getPlayer().getUniqueId());
+		if (state == null || state.cooldownRow < 0) return;
+		if (barTask != null) activeRows.clear(state.cooldownRow);
+		if (state.cooldownBarTask != null) {
+			state.cooldownBarTask.cancel();
+			state.cooldownBarTask = null;
+		}
+		cooldowns.release(state.cooldownRow);
+		state.cooldownRow = -1;
+	}
+
+	private void showCooldowns() {
+		int now = scheduler.currentTick();
+		WeaponConfig config = plugin.getWeaponConfig();
+		for (int row = activeRows.nextSetBit(0); row >= 0; row = activeRows.nextSetBit(row + 1)) {
+			Player player = plugin.getServer().getPlayer(cooldowns.owner(row));
+			PlayerState state = player != null ? plugin.getPlayerStates().get(player.getUniqueId()) : null;
+			if (state == null || showCooldown(player, state, config, now)) activeRows.clear(row);
+		}
+	}
+
+	// Sends the player's bar if its text changed; true once every cooldown has run out
+	private boolean showCooldown(Player player, PlayerState state, WeaponConfig config, int now) {
+		int row = state.cooldownRow;
+		boolean settled = cooldowns.settle(row, now);
+		String bar = settled ? ChatColor.GREEN + "Abilities ready" : cooldownBar(config, row, now);
+		if (!bar.equals(state.cooldownBar)) {
+			state.cooldownBar = bar;
+			// The bar is built with section-sign colors, which Component.text would show verbatim
+			player.sendActionBar(LegacyComponentSerializer.legacySection().deserialize(bar));
+			metrics.cooldownBarsSent.increment();
+		}
+		return settled;
+	}
+
+	private String cooldownBar(WeaponConfig config, int row, int now) {
+		StringBuilder bar = new StringBuilder();
+		for (int slot = 0; slot < cooldowns.abilityCount(); slot++) {
+			int ticks = cooldowns.remaining(row, slot, now);
+			if (ticks == 0) continue;
+			if (bar.length() > 0) bar.append(ChatColor.DARK_GRAY).append(" | ");
+			bar.append(ChatColor.GRAY).append(config.getAbility(slot).boostType.displayName()).append(' ')
+				.append(ChatColor.WHITE).append(formatTicks(ticks));
+		}
+		return bar.toString();
+	}
+
+	/** Ticks as seconds with one decimal, e.g. 63 ticks as "3.2s". */
+	public static String formatTicks(int ticks) {
+		int tenths = (ticks + 1) / 2;
+		return tenths / 10 + "." + tenths % 10 + "s";
+	}
+}
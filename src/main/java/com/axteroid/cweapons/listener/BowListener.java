@@ -1,85 +1,174 @@
 package com.axteroid.customweapons.listener;
 
-import org.bukkit.Material;
-import org.bukkit.entity.Arrow;
+import org.bukkit.NamespacedKey;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.AbstractArrow;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityShootBowEvent;
 import org.bukkit.event.entity.ProjectileHitEvent;
-import org.bukkit.event.entity.ProjectileLaunchEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
-// removed unused meta imports
-import org.bukkit.projectiles.ProjectileSource;
 
 import com.axteroid.customweapons.CustomWeapons;
 import com.axteroid.customweapons.config.WeaponConfig;
 import com.axteroid.customweapons.item.CustomItemManager;
+import com.axteroid.customweapons.metrics.PluginMetrics;
+import com.axteroid.customweapons.scheduler.PluginScheduler;
+import com.axteroid.customweapons.state.PlayerState;
+import com.axteroid.customweapons.state.ProjectileTracker;
 
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
 public class BowListener implements Listener {
+    // Vanilla despawns arrows stuck in the ground after a minute; anything older was missed by the events
+    private static final int MAX_TRACKED_TICKS = 1200;
+    private static final long SWEEP_INTERVAL_TICKS = 200L;
+
     private final CustomWeapons plugin;
     private final CustomItemManager itemManager;
+    private final PluginMetrics metrics;
+    private final PluginScheduler scheduler;
+    // PDC copy of the weapon id, read when arrows are loaded back from disk and for every hit on Folia
+    private final NamespacedKey arrowWeaponKey;
+    // Paper only: Folia runs hits on many region threads, which the tracker and the pending slot can't share
+    private final ProjectileTracker projectiles = new ProjectileTracker();
+    private final PluginScheduler.Task sweepTask;
+
+    // Projectile that just hit a living entity; its damage event follows in the same call
+    private int pendingHitProjectile = -1;
+    private WeaponConfig.WeaponDefinition pendingHitWeapon;
 
     public BowListener(CustomWeapons plugin, CustomItemManager itemManager) {
         this.plugin = plugin;
         this.itemManager = itemManager;
+        this.metrics = plugin.getMetrics();
+        this.scheduler = plugin.getScheduler();
+        this.arrowWeaponKey = plugin.key("bow_weapon_id");
+        this.sweepTask = scheduler.isRegionized() ? null
+            : scheduler.runGlobalTimer(this::sweepProjectiles, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
     }
 
-    @EventHandler
-    public void onProjectileLaunch(ProjectileLaunchEvent event) {
-        ProjectileSource source = event.getEntity().getShooter();
-        if (!(source instanceof Player)) return;
-        Player player = (Player) source;
-        ItemStack used = player.getInventory().getItemInMainHand();
-        if (used == null || (used.getType() != Material.BOW && used.getType() != Material.CROSSBOW)) {
-            // try offhand
-            used = player.getInventory().getItemInOffHand();
-        }
-        String id = itemManager.getItemId(used);
-        if (id == null) return;
-        WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(id);
+    public void shutdown() {
+        if (sweepTask != null) sweepTask.cancel();
+    }
+
+    private void sweepProjectiles() {
+        metrics.projectileSweeps.increment();
+        int expired = projectiles.expire(scheduler.currentTick(), MAX_TRACKED_TICKS);
+        metrics.projectilesExpired.add(expired);
+    }
+
+    // Only bows and crossbows raise this event, so snowballs, pearls and tridents never reach an item lookup
+    @EventHandler(ignoreCancelled = true)
+    public void onShootBow(EntityShootBowEvent event) {
+        long start = System.nanoTime();
+        handleShoot(event);
+        metrics.bowShoot.recordSince(start);
+    }
+
+    private void handleShoot(EntityShootBowEvent event) {
+        if (!(event.getEntity() instanceof Player player)) return;
+        if (!(event.getProjectile() instanceof AbstractArrow arrow)) return;
+        WeaponConfig.WeaponDefinition def = resolveBow(player, event.getBow(), event.getHand());
         if (def == null) return;
 
-        if (event.getEntity() instanceof Arrow arrow) {
-            // Remove arrow glowing - we'll handle player glowing on hit instead
+        int flameLevel = def.flameLevel;
+        if (flameLevel > 0) {
+            int ticks = 80 * flameLevel; // scale burn duration
+            arrow.setFireTicks(Math.max(arrow.getFireTicks(), ticks));
+        }
 
-            Object flameLevelObj = def.legacyBowModifiers.get("flame_level");
-            int flameLevel = (flameLevelObj instanceof Number) ? ((Number) flameLevelObj).intValue() : 0;
-            for (WeaponConfig.BoostDef b : def.boosts) {
-                if ("BOW_FLAME_LEVEL".equalsIgnoreCase(b.type) && b.value != null) {
-                    flameLevel = Math.max(flameLevel, b.value.intValue());
-                }
-            }
-            if (flameLevel > 0) {
-                int ticks = 80 * flameLevel; // scale burn duration
-                arrow.setFireTicks(Math.max(arrow.getFireTicks(), ticks));
+        // Hits resolve from memory; the PDC copy only matters if the arrow outlives a restart
+        if (sweepTask != null) {
+            projectiles.put(arrow.getEntityId(), def, scheduler.currentTick());
+            metrics.projectilesTracked.increment();
+        }
+        PersistentDataContainer pdc = arrow.getPersistentDataContainer();
+        pdc.set(arrowWeaponKey, PersistentDataType.STRING, def.id);
+    }
+
+    // Arrows saved with a chunk come back with new entity ids; track them again from their PDC tag
+    @EventHandler
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        if (sweepTask == null) return;
+        int tick = scheduler.currentTick();
+        for (Entity entity : event.getEntities()) {
+            if (!(entity instanceof AbstractArrow arrow)) continue;
+            String id = arrow.getPersistentDataContainer().get(arrowWeaponKey, PersistentDataType.STRING);
+            if (id == null) continue;
+            WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(id);
+            if (def != null) {
+                projectiles.put(arrow.getEntityId(), def, tick);
+                metrics.projectilesRestored.increment();
             }
+        }
+    }
 
-            // Attach weapon ID to arrow for hit detection
-            PersistentDataContainer pdc = arrow.getPersistentDataContainer();
-            pdc.set(plugin.key("bow_weapon_id"), PersistentDataType.STRING, id);
+    // Covers despawn, kills and chunk unloads alike
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (projectiles.isEmpty() || !(event.getEntity() instanceof AbstractArrow arrow)) return;
+        projectiles.remove(arrow.getEntityId());
+    }
+
+    // The exact item that fired; repeated events for one volley reuse the first lookup.
+    // Keyed by tick, hand and type, since the crossbow takes damage between the arrows of a volley
+    private WeaponConfig.WeaponDefinition resolveBow(Player player, ItemStack bow, EquipmentSlot hand) {
+        if (bow == null) return null;
+        int tick = scheduler.currentTick();
+        PlayerState state = plugin.getPlayerStates().getOrCreate(player.getUniqueId());
+        if (tick == state.lastShotTick && hand == state.lastShotHand && bow.getType() == state.lastShotType) {
+            metrics.volleyReuses.increment();
+            return state.lastShotWeapon;
         }
+        String id = itemManager.getItemId(bow);
+        WeaponConfig.WeaponDefinition def = id != null ? plugin.getWeaponConfig().get(id) : null;
+        state.lastShotTick = tick;
+        state.lastShotHand = hand;
+        state.lastShotType = bow.getType();
+        state.lastShotWeapon = def;
+        return def;
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onProjectileHit(ProjectileHitEvent event) {
-        if (!(event.getEntity() instanceof Arrow arrow)) return;
-        if (!(arrow.getShooter() instanceof Player)) return;
-        
-        String weaponId = arrow.getPersistentDataContainer().get(plugin.key("bow_weapon_id"), PersistentDataType.STRING);
-        if (weaponId == null || !"kings_bow".equals(weaponId)) return;
-        
-        if (event.getHitEntity() instanceof Player hitPlayer) {
-            // Make player glow for 10 seconds
-            hitPlayer.setGlowing(true);
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (hitPlayer.isOnline()) {
-                    hitPlayer.setGlowing(false);
-                }
-            }, 200L); // 10 seconds = 200 ticks
+        long start = System.nanoTime();
+        handleHit(event);
+        metrics.bowHit.recordSince(start);
+    }
+
+    private void handleHit(ProjectileHitEvent event) {
+        if (projectiles.isEmpty()) return;
+        Projectile projectile = event.getEntity();
+        WeaponConfig.WeaponDefinition def = projectiles.remove(projectile.getEntityId());
+        if (def == null || def.projectileHitActions.length == 0) return;
+        if (!(projectile.getShooter() instanceof Player)) return;
+        if (event.getHitEntity() instanceof LivingEntity) {
+            // Actions run from the damage event, once the hit was not cancelled
+            pendingHitProjectile = projectile.getEntityId();
+            pendingHitWeapon = def;
+        }
+    }
+
+    /** The weapon of a projectile whose hit is being damaged, or null; each hit is handed out once. */
+    public WeaponConfig.WeaponDefinition takeHit(Projectile projectile) {
+        if (sweepTask == null) {
+            String id = projectile.getPersistentDataContainer().get(arrowWeaponKey, PersistentDataType.STRING);
+            return id != null ? plugin.getWeaponConfig().get(id) : null;
         }
+        if (projectile.getEntityId() != pendingHitProjectile) return null;
+        WeaponConfig.WeaponDefinition def = pendingHitWeapon;
+        pendingHitProjectile = -1;
+        pendingHitWeapon = null;
+        return def;
     }
 }
 
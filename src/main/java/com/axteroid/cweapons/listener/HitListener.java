@@ -0,0 +1,134 @@
+package com.cheetah.customweapons.listener;
+
+import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.effect.ExpiryWheel;
+import com.cheetah.customweapons.effect.HitAction;
+import com.cheetah.customweapons.effect.HitActions;
+import com.cheetah.customweapons.effect.Proc;
+import com.cheetah.customweapons.effect.ProcEngine;
+import com.cheetah.customweapons.item.HeldItemCache;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import com.cheetah.customweapons.state.PlayerState;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+
+/**
+ * Runs weapon on-hit actions once a melee or projectile hit has dealt damage.
+ * Weapons without on-hit boosts are dropped by one array-length check.
+ */
+public class HitListener implements Listener {
+	private final CustomWeapons plugin;
+	private final HeldItemCache heldItemCache;
+	private final BowListener bowListener;
+	private final PluginMetrics metrics;
+	private final ProcEngine procs;
+	private final PluginScheduler scheduler;
+
+	public HitListener(CustomWeapons plugin, HeldItemCache heldItemCache, BowListener bowListener) {
+		this.plugin = plugin;
+		this.heldItemCache = heldItemCache;
+		this.bowListener = bowListener;
+		this.metrics = plugin.getMetrics();
+		this.procs = new ProcEngine(metrics);
+		this.scheduler = plugin.getScheduler();
+	}
+
+	// MONITOR: the hit is final, so protected or cancelled hits never trigger actions
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onDamage(EntityDamageByEntityEvent event) {
+		if (!(event.getEntity() instanceof LivingEntity target)) return;
+		long start = System.nanoTime();
+		Entity damager = event.getDamager();
+		if (damager instanceof Player attacker) {
+			// Sweeps and thorns also name the player as damager; only the direct swing counts
+			if (event.getCause() == EntityDamageEvent.DamageCause.ENTITY_ATTACK) {
+				PlayerState state = plugin.getPlayerStates().getOrCreate(attacker.getUniqueId());
+				String id = heldItemCache.resolve(state, HeldItemCache.MAIN_HAND, attacker.getInventory().getItemInMainHand());
+				WeaponConfig.WeaponDefinition def = id != null ? plugin.getWeaponConfig().get(id) : null;
+				if (def != null) run(def.meleeHitActions, def.meleeHitProcs, attacker, attacker, target, event.getFinalDamage());
+			}
+		} else if (damager instanceof Projectile projectile && projectile.getShooter() instanceof Player attacker) {
+			WeaponConfig.WeaponDefinition def = bowListener.takeHit(projectile);
+			if (def != null && attacker != target) {
+				run(def.projectileHitActions, def.projectileHitProcs, attacker, projectile, target, event.getFinalDamage());
+			}
+		}
+		metrics.damageEvents.recordSince(start);
+	}
+
+	// A glow still pending when a player leaves or a mob's chunk unloads would be saved on for good
+	@EventHandler
+	public void onQuit(PlayerQuitEvent event) {
+		HitActions.endGlow(event.getPlayer(), plugin.getExpiryWheel());
+	}
+
+	@EventHandler
+	public void onEntitiesUnload(EntitiesUnloadEvent event) {
+		ExpiryWheel expiries = plugin.getExpiryWheel();
+		if (expiries.size() == 0) return;
+		for (Entity entity : event.getEntities()) {
+			HitActions.endGlow(entity, expiries);
+		}
+	}
+
+	/**
+	 * Runs on the target's thread. Ungated actions on the target apply right away.
+	 * Proc rolls and attacker-side actions change the attacker's state and health,
+	 * so they run on the attacker's thread; on Folia a shooter can be in another
+	 * region. Gated target actions that fire go back to the target's thread.
+	 * On Paper every step is a direct call, so a hit allocates nothing.
+	 */
+	private void run(HitAction[] actions, Proc[] gates, Player attacker, Entity source, LivingEntity target, double damage) {
+		if (actions.length == 0) return;
+		boolean attackerSide = false;
+		for (int i = 0; i < actions.length; i++) {
+			if (gates[i] == null && !(actions[i] instanceof HitAction.OnAttacker)) {
+				apply(actions[i], attacker, source, target, damage);
+			} else {
+				attackerSide = true;
+			}
+		}
+		if (!attackerSide) return;
+		if (scheduler.isRegionized()) {
+			scheduler.runAtEntity(attacker, () -> runOnAttacker(actions, gates, attacker, source, target, damage));
+		} else {
+			runOnAttacker(actions, gates, attacker, source, target, damage);
+		}
+	}
+
+	private void runOnAttacker(HitAction[] actions, Proc[] gates, Player attacker, Entity source, LivingEntity target, double damage) {
+		PlayerState state = plugin.getPlayerStates().getOrCreate(attacker.getUniqueId());
+		int tick = scheduler.currentTick();
+		for (int i = 0; i < actions.length; i++) {
+			HitAction action = actions[i];
+			boolean onAttacker = action instanceof HitAction.OnAttacker;
+			if (gates[i] == null && !onAttacker) continue; // already applied on the target's thread
+			if (gates[i] != null && !procs.roll(state, gates[i], tick)) continue;
+			if (onAttacker || !scheduler.isRegionized()) {
+				apply(action, attacker, source, target, damage);
+			} else {
+				scheduler.runAtEntity(target, () -> apply(action, attacker, source, target, damage));
+			}
+		}
+	}
+
+	private void apply(HitAction action, Player attacker, Entity source, LivingEntity target, double damage) {
+		try {
+			action.apply(attacker, source, target, damage, plugin.getExpiryWheel());
+		} catch (Exception e) {
+			plugin.getLogger().warning("Error running hit action for " + attacker.getName() + ": " + e.getMessage());
+		}
+		metrics.hitActions.increment();
+	}
+}
@@ -1,325 +1,366 @@
 package com.cheetah.customweapons.listener;
 
 import com.cheetah.customweapons.CustomWeapons;
+import com.cheetah.customweapons.config.CatalogDiff;
 import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.effect.HoldEffectReconciler;
 import com.cheetah.customweapons.item.CustomItemManager;
+import com.cheetah.customweapons.item.HeldItemCache;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import com.cheetah.customweapons.state.EffectContributions;
+import com.cheetah.customweapons.state.PlayerState;
+import com.cheetah.customweapons.state.PlayerStateTable;
+import com.cheetah.customweapons.state.TrackedEffects;
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.HashSet;
+import java.util.UUID;
 
 public class InventoryListener implements Listener {
+	// Indexed by armor source - EffectContributions.HEAD
+	private static final EquipmentSlot[] ARMOR_SLOTS = {
+		EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+	};
+
 	private final CustomWeapons plugin;
 	private final CustomItemManager itemManager;
-	
-	// Cache for effect types to avoid repeated lookups
-	private static final Map<String, PotionEffectType> EFFECT_CACHE = new ConcurrentHashMap<>();
-	static {
-		EFFECT_CACHE.put("HOLD_SPEED", PotionEffectType.SPEED);
-		EFFECT_CACHE.put("HOLD_STRENGTH", PotionEffectType.STRENGTH);
-		EFFECT_CACHE.put("HOLD_RESISTANCE", PotionEffectType.RESISTANCE);
-		EFFECT_CACHE.put("HOLD_SLOWNESS", PotionEffectType.SLOWNESS);
-	}
-	
-	// Track what each player is currently holding to avoid redundant processing
-	// Using synchronized maps instead of ConcurrentHashMap to avoid corruption
-	private final Map<Player, String> currentMainHand = new java.util.HashMap<>();
-	private final Map<Player, String> currentOffHand = new java.util.HashMap<>();
-	
-	// Track which effects are currently active for each player
-	private final Map<Player, Set<String>> activeEffects = new java.util.HashMap<>();
-	
-	// Synchronization lock for all map operations
-	private final Object mapLock = new Object();
-
-	public InventoryListener(CustomWeapons plugin, CustomItemManager itemManager) {
+	// Per-player hand ids and applied effects; outlives this listener across reloads
+	private final PlayerStateTable states;
+	// Skips meta cloning while a player's held stacks are unchanged
+	private final HeldItemCache heldItemCache;
+	private final HoldEffectReconciler reconciler;
+	private final PluginMetrics metrics;
+	private final PluginScheduler scheduler;
+
+	// Paper: players touched by an event this tick, drained once per tick by flushTask.
+	// Folia has no shared tick; each player's update is queued on their own region instead.
+	private final Set<UUID> dirtyPlayers = new LinkedHashSet<>();
+	private final PluginScheduler.Task flushTask;
+	private PluginScheduler.Task reconcileTask;
+
+	public InventoryListener(CustomWeapons plugin, CustomItemManager itemManager, PlayerStateTable states) {
 		this.plugin = plugin;
 		this.itemManager = itemManager;
+		this.states = states;
+		this.metrics = plugin.getMetrics();
+		this.scheduler = plugin.getScheduler();
+		this.heldItemCache = new HeldItemCache(itemManager, metrics);
+		this.reconciler = new HoldEffectReconciler(metrics);
+		this.flushTask = scheduler.isRegionized() ? null : scheduler.runGlobalTimer(this::flushDirtyPlayers, 1L, 1L);
 	}
-	
-	// Safe synchronized map operations
-	private void putMainHand(Player player, String weaponId) {
-		synchronized (mapLock) {
-			try {
-				currentMainHand.put(player, weaponId);
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Failed to update main hand for " + player.getName() + ": " + e.getClass().getSimpleName());
-				}
-			}
+
+	public HeldItemCache getHeldItemCache() {
+		return heldItemCache;
+	}
+
+	public void shutdown() {
+		if (flushTask != null) flushTask.cancel();
+		if (reconcileTask != null) reconcileTask.cancel();
+		dirtyPlayers.clear();
+	}
+
+	// Queue a reconcile for the next flush; repeated events in a tick collapse into one
+	private void markDirty(Player player) {
+		if (scheduler.isRegionized()) {
+			queueOnRegion(player);
+		} else if (!dirtyPlayers.add(player.getUniqueId())) {
+			metrics.coalescedUpdates.increment();
 		}
 	}
-	
-	private void putOffHand(Player player, String weaponId) {
-		synchronized (mapLock) {
-			try {
-				currentOffHand.put(player, weaponId);
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Failed to update off hand for " + player.getName() + ": " + e.getClass().getSimpleName());
-				}
-			}
+
+	// Folia: one queued update per player; the flag is only touched on the player's region thread
+	private void queueOnRegion(Player player) {
+		PlayerState state = states.getOrCreate(player.getUniqueId());
+		if (state.updateQueued) {
+			metrics.coalescedUpdates.increment();
+			return;
 		}
+		state.updateQueued = true;
+		scheduler.runAtEntityLater(player, () -> {
+			state.updateQueued = false;
+			metrics.flushedUpdates.increment();
+			long start = System.nanoTime();
+			updatePlayerEffects(player);
+			metrics.playerUpdate.recordSince(start);
+		}, () -> state.updateQueued = false, 1L);
 	}
-	
-	private void removePlayer(Player player) {
-		synchronized (mapLock) {
-			try {
-				currentMainHand.remove(player);
-				currentOffHand.remove(player);
-				activeEffects.remove(player);
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Failed to remove player " + player.getName() + ": " + e.getClass().getSimpleName());
-				}
+
+	/** Queues an effect update for a player whose hands changed without an event, see HoldEffectsTask. */
+	public void refresh(Player player) {
+		markDirty(player);
+	}
+
+	// Handlers that only queue a flush share one timer
+	private void markDirtyTimed(Player player) {
+		long start = System.nanoTime();
+		markDirty(player);
+		metrics.inventoryEvents.recordSince(start);
+	}
+
+	/** Queues the online players a reload affected over the next ticks, perTick at a time. */
+	public void reconcileGradually(int perTick, CatalogDiff diff) {
+		if (reconcileTask != null) reconcileTask.cancel();
+		reconcileTask = null;
+		if (diff.isEmpty() && !(diff.slotsMoved && scheduler.isRegionized())) return;
+		List<Player> online = new ArrayList<>(plugin.getServer().getOnlinePlayers());
+		if (scheduler.isRegionized()) {
+			// Each player's state belongs to their region: check and reset it there, spread over the next ticks
+			for (int i = 0; i < online.size(); i++) {
+				Player player = online.get(i);
+				scheduler.runAtEntityLater(player, () -> {
+					PlayerState state = states.get(player.getUniqueId());
+					if (state != null && diff.slotsMoved) state.resetProcs();
+					if (state != null ? !diff.affects(state) : diff.isEmpty()) return;
+					if (state != null) state.forgetHeldItems();
+					markDirty(player);
+				}, null, 1L + i / perTick);
+			}
+			return;
+		}
+		List<Player> affected = new ArrayList<>();
+		for (Player player : online) {
+			PlayerState state = states.get(player.getUniqueId());
+			if (state == null || diff.affects(state)) {
+				if (state != null) state.forgetHeldItems();
+				affected.add(player);
 			}
 		}
+		if (affected.isEmpty()) return;
+		Iterator<Player> pending = affected.iterator();
+		PluginScheduler.Task[] self = new PluginScheduler.Task[1];
+		self[0] = scheduler.runGlobalTimer(() -> {
+			metrics.reconcileBatches.increment();
+			for (int i = 0; i < perTick && pending.hasNext(); i++) {
+				Player player = pending.next();
+				if (player.isOnline()) markDirty(player);
+			}
+			if (!pending.hasNext()) self[0].cancel();
+		}, 1L, 1L);
+		reconcileTask = self[0];
 	}
-	
-	private Set<String> getOrCreateEffects(Player player) {
-		synchronized (mapLock) {
-			try {
-				return activeEffects.computeIfAbsent(player, k -> new HashSet<>());
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Failed to get effects for " + player.getName() + ": " + e.getClass().getSimpleName());
-				}
-				return new HashSet<>();
+
+	private void flushDirtyPlayers() {
+		metrics.flushRuns.increment();
+		if (dirtyPlayers.isEmpty()) return;
+		long start = System.nanoTime();
+		UUID[] pending = dirtyPlayers.toArray(new UUID[0]);
+		dirtyPlayers.clear();
+		for (UUID id : pending) {
+			Player player = plugin.getServer().getPlayer(id);
+			if (player != null) {
+				metrics.flushedUpdates.increment();
+				long playerStart = System.nanoTime();
+				updatePlayerEffects(player);
+				metrics.playerUpdate.recordSince(playerStart);
 			}
 		}
+		metrics.flush.recordSince(start);
 	}
 
-	// Main method to update all effects for a player
-	private void updatePlayerEffects(Player player) {
+	/**
+	 * Resolves the player's hands, and their armor after a join or reload, and applies
+	 * the difference in hold effects. Normally run by the flush; call it on the
+	 * player's thread.
+	 */
+	public void updatePlayerEffects(Player player) {
 		try {
-			if (itemManager == null) {
-				return;
-			}
-			
-			// Additional safety checks
-			if (player == null || !player.isOnline() || player.getInventory() == null) {
-				return;
-			}
-			
-			// Get current items with additional null checks
-			String mainId = null;
-			String offId = null;
-			
-			try {
-				mainId = itemManager.getItemId(player.getInventory().getItemInMainHand());
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Error getting main hand item for " + player.getName() + ": " + e.getClass().getSimpleName());
-				}
-			}
-			
-			try {
-				offId = itemManager.getItemId(player.getInventory().getItemInOffHand());
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().warning("Error getting off hand item for " + player.getName() + ": " + e.getClass().getSimpleName());
+			// Death clears every effect; the respawn handler queues them again
+			if (!player.isOnline() || player.isDead()) return;
+			PlayerState state = states.getOrCreate(player.getUniqueId());
+
+			PlayerInventory inventory = player.getInventory();
+			String mainId = heldItemCache.resolve(state, HeldItemCache.MAIN_HAND, inventory.getItemInMainHand());
+			String offId = heldItemCache.resolve(state, HeldItemCache.OFF_HAND, inventory.getItemInOffHand());
+
+			// Armor changes arrive as events; worn items are only looked up after a join or reload
+			WeaponConfig config = plugin.getWeaponConfig();
+			if (!state.armorResolved) {
+				state.armorResolved = true;
+				for (int source = EffectContributions.HEAD; source <= EffectContributions.FEET; source++) {
+					updateArmor(player, state, source);
 				}
 			}
-			
-			// Remove ALL current effects first
-			clearAllEffects(player);
-			
-			// Apply new effects
-			if (mainId != null) applyEffects(player, mainId);
-			if (offId != null) applyEffects(player, offId);
-			
-			// Update tracking using synchronized operations
-			putMainHand(player, mainId);
-			putOffHand(player, offId);
-			
+
+			// Apply only the difference between what the hands grant and what is applied
+			reconciler.reconcile(player, state,
+				mainId != null ? config.get(mainId) : null,
+				offId != null ? config.get(offId) : null);
+
+			state.mainHand = mainId;
+			state.offHand = offId;
 		} catch (Exception e) {
-			if (plugin != null) {
-				plugin.getLogger().warning("Error updating player effects for " + player.getName() + ": " + 
-					(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
-				plugin.getLogger().warning("Stack trace: " + e.getClass().getSimpleName() + " at " + 
-					(e.getStackTrace().length > 0 ? e.getStackTrace()[0].toString() : "unknown location"));
-			}
+			plugin.getLogger().warning("Error updating player effects for " + player.getName() + ": " +
+				(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onItemHeld(PlayerItemHeldEvent event) {
-		if (plugin != null && event.getPlayer() != null && event.getPlayer().isOnline()) {
-			// Delay to ensure the inventory is updated with the new item
-			plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-				updatePlayerEffects(event.getPlayer());
-			}, 1L);
-		}
+		// Reconciled on the next flush, once the inventory holds the new item
+		markDirtyTimed(event.getPlayer());
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onSwapHands(PlayerSwapHandItemsEvent event) {
-		if (plugin != null && event.getPlayer() != null && event.getPlayer().isOnline()) {
-			updatePlayerEffects(event.getPlayer());
-		}
+		markDirtyTimed(event.getPlayer());
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onInventoryClick(InventoryClickEvent event) {
-		if (plugin == null) return;
 		if (!(event.getWhoClicked() instanceof Player player)) return;
 		// Any inventory click (number-keys, shift-click, swap-offhand) can affect held/offhand
-		plugin.getServer().getScheduler().runTaskLater(plugin, () -> updatePlayerEffects(player), 1L);
+		markDirtyTimed(player);
+	}
+
+	// Stale weapons in a container are rebuilt as it is opened; held ones when they are next resolved.
+	// HIGH rather than MONITOR, so plugins watching at MONITOR see the refreshed contents
+	@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+	public void onInventoryOpen(InventoryOpenEvent event) {
+		if (!plugin.getWeaponConfig().isRefreshStaleItems()) return;
+		long start = System.nanoTime();
+		for (ItemStack item : event.getInventory().getContents()) {
+			itemManager.refreshIfStale(item);
+		}
+		metrics.inventoryEvents.recordSince(start);
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onInventoryDrag(InventoryDragEvent event) {
-		if (plugin == null) return;
 		if (!(event.getWhoClicked() instanceof Player player)) return;
-		plugin.getServer().getScheduler().runTaskLater(plugin, () -> updatePlayerEffects(player), 1L);
+		markDirtyTimed(player);
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onItemDrop(PlayerDropItemEvent event) {
-		if (plugin == null) return;
-		// Update effects after a short delay to ensure item is dropped
-		plugin.getServer().getScheduler().runTask(plugin, () -> updatePlayerEffects(event.getPlayer()));
+		markDirtyTimed(event.getPlayer());
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onItemPickup(EntityPickupItemEvent event) {
-		if (plugin == null) return;
 		if (!(event.getEntity() instanceof Player player)) return;
-		// Delay to allow hotbar auto-insert or equip to settle
-		plugin.getServer().getScheduler().runTaskLater(plugin, () -> updatePlayerEffects(player), 1L);
+		// Hotbar auto-insert or equip settles before the flush
+		markDirtyTimed(player);
 	}
 
 	// Initialize player state when they join
 	@EventHandler
-	public void onPlayerJoin(org.bukkit.event.player.PlayerJoinEvent event) {
-		// Delay initialization to ensure everything is properly loaded
-		plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-			try {
-				Player player = event.getPlayer();
-				
-				// Safety check for null plugin
-				if (plugin == null) {
-					System.err.println("Plugin is null during player join for " + player.getName());
-					return;
-				}
-				
-				// Safety check for null itemManager
-				if (itemManager == null) {
-					plugin.getLogger().warning("ItemManager is null during player join for " + player.getName());
-					return;
-				}
-				
-							// Initialize with current items and apply effects
-			String mainId = itemManager.getItemId(player.getInventory().getItemInMainHand());
-			String offId = itemManager.getItemId(player.getInventory().getItemInOffHand());
-			
-			// Use synchronized operations
-			putMainHand(player, mainId);
-			putOffHand(player, offId);
-				
-				// Apply effects from both hands
-				if (mainId != null) applyEffects(player, mainId);
-				if (offId != null) applyEffects(player, offId);
-				
-			} catch (Exception e) {
-				if (plugin != null) {
-					plugin.getLogger().severe("Error during player join: " + e.getMessage());
-					e.printStackTrace();
-				} else {
-					System.err.println("Error during player join: " + e.getMessage());
-					e.printStackTrace();
-				}
-			}
-		}, 1L); // 1 tick delay
+	public void onPlayerJoin(PlayerJoinEvent event) {
+		// Applied by the next flush, once everything is properly loaded
+		markDirtyTimed(event.getPlayer());
 	}
-	
-	// Clean up player data when they disconnect
-	@EventHandler
-	public void onPlayerQuit(org.bukkit.event.player.PlayerQuitEvent event) {
-		try {
-			Player player = event.getPlayer();
-			removePlayer(player);
-		} catch (Exception e) {
-			if (plugin != null) {
-				plugin.getLogger().warning("Error during player quit cleanup: " + e.getMessage());
-			}
+
+	// Fired for every way armor changes, including dispensers and commands.
+	// Not MONITOR: the lookup may rewrite a stale worn weapon in place
+	@EventHandler(priority = EventPriority.HIGH)
+	public void onArmorChange(PlayerArmorChangeEvent event) {
+		long start = System.nanoTime();
+		Player player = event.getPlayer();
+		PlayerState state = states.get(player.getUniqueId());
+		// Before the first update the whole armor set is resolved anyway
+		if (state != null && state.armorResolved) {
+			int source = armorSource(event.getSlot());
+			if (source >= 0) updateArmor(player, state, source);
 		}
+		metrics.inventoryEvents.recordSince(start);
 	}
-	
-	// Clear all custom weapon effects from a player
-	private void clearAllEffects(Player player) {
+
+	// Reads the worn stack from the inventory rather than the event's copy. It mirrors the
+	// worn item, so a refresh or tag written by the lookup lands on it without writing it back
+	private void updateArmor(Player player, PlayerState state, int source) {
+		int slot = source - EffectContributions.HEAD;
+		ItemStack item = player.getInventory().getItem(ARMOR_SLOTS[slot]);
+		boolean worn = item != null && item.getType() != Material.AIR;
+		String id = worn ? itemManager.getItemId(item) : null;
+		state.armorWeapons[slot] = id;
+		state.armorWorn = worn ? state.armorWorn | 1 << slot : state.armorWorn & ~(1 << slot);
 		try {
-			Set<String> effects;
-			synchronized (mapLock) {
-				effects = activeEffects.get(player);
-			}
-			
-			if (effects != null) {
-				for (String effectType : effects) {
-					PotionEffectType type = EFFECT_CACHE.get(effectType);
-					if (type != null) {
-						player.removePotionEffect(type);
-					}
-				}
-				effects.clear();
-			}
+			reconciler.reconcileArmor(player, state, source, id != null ? plugin.getWeaponConfig().get(id) : null);
 		} catch (Exception e) {
-			if (plugin != null) {
-				plugin.getLogger().warning("Error clearing effects for " + player.getName() + ": " + e.getMessage());
-			}
+			plugin.getLogger().warning("Error updating armor effects for " + player.getName() + ": " + e.getMessage());
 		}
 	}
-	
-	private void applyEffects(Player player, String weaponId) {
-		try {
-			if (plugin == null) return;
-			
-			WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(weaponId);
-			if (def == null || def.boosts == null) return;
-			
-			// Get or create active effects set for this player
-			Set<String> effects = getOrCreateEffects(player);
-			
-			// Batch effect application for better performance
-			Set<PotionEffect> effectsToApply = new HashSet<>();
-			
-			for (WeaponConfig.BoostDef b : def.boosts) {
-				PotionEffectType type = EFFECT_CACHE.get(b.type);
-				if (type != null && b.value != null) {
-					int amplifier = Math.max(0, b.value.intValue() - 1);
-					effectsToApply.add(new PotionEffect(type, Integer.MAX_VALUE, amplifier, true, false, true));
-					try {
-						effects.add(b.type); // Track this effect as active
-					} catch (Exception e) {
-						if (plugin != null) {
-							plugin.getLogger().warning("Failed to track effect " + b.type + " for " + player.getName() + ": " + e.getClass().getSimpleName());
-						}
-					}
-				}
-			}
-			
-			// Apply all effects at once
-			if (!effectsToApply.isEmpty()) {
-				player.addPotionEffects(effectsToApply);
-			}
-		} catch (Exception e) {
-			if (plugin != null) {
-				plugin.getLogger().warning("Error applying effects for " + player.getName() + ": " + e.getMessage());
+
+	private static int armorSource(EquipmentSlot slot) {
+		switch (slot) {
+			case HEAD: return EffectContributions.HEAD;
+			case CHEST: return EffectContributions.CHEST;
+			case LEGS: return EffectContributions.LEGS;
+			case FEET: return EffectContributions.FEET;
+			default: return -1;
+		}
+	}
+
+	// Effects removed by milk, death or commands must be re-applied while the weapon is still held
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPotionEffectChange(EntityPotionEffectEvent event) {
+		long start = System.nanoTime();
+		handlePotionEffectChange(event);
+		metrics.potionEvents.recordSince(start);
+	}
+
+	private void handlePotionEffectChange(EntityPotionEffectEvent event) {
+		if (!(event.getEntity() instanceof Player player)) return;
+		if (event.getCause() == EntityPotionEffectEvent.Cause.PLUGIN) return;
+		if (event.getAction() != EntityPotionEffectEvent.Action.REMOVED
+				&& event.getAction() != EntityPotionEffectEvent.Action.CLEARED) return;
+		PotionEffect old = event.getOldEffect();
+		if (old == null) return;
+		PlayerState state = states.get(player.getUniqueId());
+		int index = TrackedEffects.indexOf(old.getType());
+		if (state == null || index < 0 || (state.effectMask & (1 << index)) == 0) return;
+		state.effectMask &= ~(1 << index);
+		markDirty(player);
+	}
+
+	// The respawned player has no effects and nothing in their hands changed, so no other event re-applies them
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onRespawn(PlayerRespawnEvent event) {
+		Player player = event.getPlayer();
+		PlayerState state = states.get(player.getUniqueId());
+		if (state == null) return;
+		state.forgetAppliedEffects();
+		markDirtyTimed(player);
+	}
+
+	// Release player state when they disconnect; weapon effects must not persist in their save
+	@EventHandler
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		long start = System.nanoTime();
+		Player player = event.getPlayer();
+		if (!scheduler.isRegionized()) dirtyPlayers.remove(player.getUniqueId());
+		PlayerState state = states.remove(player.getUniqueId());
+		if (state != null) {
+			try {
+				reconciler.clear(player, state);
+			} catch (Exception e) {
+				plugin.getLogger().warning("Error clearing effects for " + player.getName() + ": " + e.getMessage());
 			}
 		}
+		metrics.quitEvents.recordSince(start);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.cheetah.customweapons.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution over fixed microsecond buckets. Recording is a bucket
+ * search and two adds, cheap enough to leave on in production.
+ */
+public final class LatencyHistogram {
+
+    // Upper bounds in microseconds; the last bucket takes everything above
+    static final long[] BOUNDS_MICROS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 50_000 };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int i = 0;
+        while (i < BOUNDS_MICROS.length && micros >= BOUNDS_MICROS[i]) i++;
+        buckets[i].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /** Records the time elapsed since {@code startNanos}, taken from {@link System#nanoTime()}. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) count += bucket.sum();
+        return count;
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    public double meanMicros() {
+        long count = count();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000.0 / count;
+    }
+
+    /** Upper bound of the bucket holding the given quantile, or -1 when it is the open last bucket. */
+    public long quantileMicros(double quantile) {
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : -1;
+        }
+        return -1;
+    }
+
+    public long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,56 @@
+package com.cheetah.customweapons.metrics;
+
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes {@link PluginMetrics#toJson()} to {@code stats.json} in the data folder
+ * on an async timer. The file is replaced in one move so readers never see a
+ * partial snapshot.
+ */
+public class MetricsSnapshotTask {
+
+    private final Plugin plugin;
+    private final PluginMetrics metrics;
+    private final PluginScheduler scheduler;
+    private final Path target;
+    private PluginScheduler.Task task;
+
+    public MetricsSnapshotTask(Plugin plugin, PluginMetrics metrics, PluginScheduler scheduler) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.target = plugin.getDataFolder().toPath().resolve("stats.json");
+    }
+
+    public void start(long intervalSeconds) {
+        stop();
+        if (intervalSeconds <= 0) return;
+        long ticks = intervalSeconds * 20L;
+        task = scheduler.runAsyncTimer(this::write, ticks, ticks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public void write() {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling("stats.json.tmp");
+            Files.writeString(temp, metrics.toJson(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write stats.json: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cheetah.customweapons.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the plugin's hot paths. Fields are
+ * written from event handlers and tasks and read by {@code /cweapons stats} and
+ * the periodic snapshot; all of them are safe to read from any thread.
+ */
+public final class PluginMetrics {
+
+    private final Map<String, LatencyHistogram> timers = new LinkedHashMap<>();
+    private final Map<String, LongAdder> counters = new LinkedHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    // Event handlers
+    public final LatencyHistogram inventoryEvents = timer("inventory.events");
+    public final LatencyHistogram potionEvents = timer("inventory.potion_events");
+    public final LatencyHistogram quitEvents = timer("inventory.quit");
+    public final LatencyHistogram flush = timer("inventory.flush");
+    public final LatencyHistogram playerUpdate = timer("inventory.player_update");
+    public final LatencyHistogram bowShoot = timer("bow.shoot");
+    public final LatencyHistogram bowHit = timer("bow.hit");
+    public final LatencyHistogram damageEvents = timer("combat.damage");
+    public final LatencyHistogram sweep = timer("tasks.hold_sweep");
+
+    // CustomItemManager.getItemId outcomes
+    public final LongAdder idPdcHits = counter("identify.pdc_hit");
+    public final LongAdder idFallbackHits = counter("identify.fallback_hit");
+    public final LongAdder idMisses = counter("identify.miss");
+    public final LongAdder idMigrated = counter("identify.migrated");
+    public final LongAdder idRetagged = counter("identify.retagged");
+    public final LongAdder idUntagged = counter("identify.untagged");
+    public final LongAdder itemsRefreshed = counter("identify.refreshed");
+    public final LongAdder heldCacheHits = counter("held_cache.hit");
+    public final LongAdder heldCacheMisses = counter("held_cache.miss");
+    public final LongAdder volleyReuses = counter("bow.volley_reuse");
+    public final LongAdder projectilesTracked = counter("projectiles.tracked");
+    public final LongAdder projectilesRestored = counter("projectiles.restored");
+    public final LongAdder projectilesExpired = counter("projectiles.expired");
+
+    // Hold effect updates
+    public final LongAdder coalescedUpdates = counter("updates.coalesced");
+    public final LongAdder flushedUpdates = counter("updates.flushed");
+    public final LongAdder effectsApplied = counter("effects.applied");
+    public final LongAdder effectsRemoved = counter("effects.removed");
+    public final LongAdder hitActions = counter("effects.hit_actions");
+    public final LongAdder procRolls = counter("procs.rolled");
+    public final LongAdder procHits = counter("procs.fired");
+    public final LongAdder procsCoolingDown = counter("procs.cooling_down");
+    public final LongAdder abilitiesUsed = counter("abilities.used");
+    public final LongAdder abilitiesCoolingDown = counter("abilities.cooling_down");
+    public final LongAdder cooldownBarsSent = counter("abilities.action_bars");
+
+    // Scheduled tasks
+    public final LongAdder flushRuns = counter("tasks.flush_runs");
+    public final LongAdder reconcileBatches = counter("tasks.reconcile_batches");
+    public final LongAdder expiriesScheduled = counter("expiry.scheduled");
+    public final LongAdder expiriesExtended = counter("expiry.extended");
+    public final LongAdder expiriesFired = counter("expiry.fired");
+    public final LongAdder projectileSweeps = counter("tasks.projectile_sweeps");
+    public final LongAdder sweepChecks = counter("tasks.hold_sweep_checks");
+    public final LongAdder sweepRepairs = counter("tasks.hold_sweep_repairs");
+    public final LongAdder sweepBudgetStops = counter("tasks.hold_sweep_budget_stops");
+    public final LongAdder reloads = counter("tasks.reloads");
+
+    private LatencyHistogram timer(String name) {
+        LatencyHistogram timer = new LatencyHistogram();
+        timers.put(name, timer);
+        return timer;
+    }
+
+    private LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        counters.put(name, counter);
+        return counter;
+    }
+
+    public Map<String, LatencyHistogram> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    public Map<String, LongAdder> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /** Current values as a JSON object; names are fixed identifiers and need no escaping. */
+    public String toJson() {
+        StringBuilder out = new StringBuilder(2048);
+        out.append("{\n  \"timestamp\": ").append(System.currentTimeMillis());
+        out.append(",\n  \"started_at\": ").append(startedAt);
+        out.append(",\n  \"counters\": {");
+        boolean first = true;
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            out.append(first ? "\n" : ",\n").append("    \"").append(e.getKey()).append("\": ").append(e.getValue().sum());
+            first = false;
+        }
+        out.append("\n  },\n  \"timers\": {");
+        first = true;
+        for (Map.Entry<String, LatencyHistogram> e : timers.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            out.append(first ? "\n" : ",\n").append("    \"").append(e.getKey()).append("\": {");
+            out.append("\"count\": ").append(h.count());
+            out.append(", \"total_us\": ").append(h.totalNanos() / 1_000);
+            out.append(", \"max_us\": ").append(h.maxNanos() / 1_000);
+            out.append(", \"buckets_us\": {");
+            long[] counts = h.bucketCounts();
+            for (int i = 0; i < counts.length; i++) {
+                if (i > 0) out.append(", ");
+                String bound = i < LatencyHistogram.BOUNDS_MICROS.length ? "<" + LatencyHistogram.BOUNDS_MICROS[i] : "inf";
+                out.append('"').append(bound).append("\": ").append(counts[i]);
+            }
+            out.append("}}");
+            first = false;
+        }
+        out.append("\n  }\n}\n");
+        return out.toString();
+    }
+}
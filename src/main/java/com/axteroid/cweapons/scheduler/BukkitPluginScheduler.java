@@ -0,0 +1,78 @@
+package com.cheetah.customweapons.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+/** Paper: one main thread, the Bukkit scheduler for everything. */
+final class BukkitPluginScheduler implements PluginScheduler {
+
+    private final Plugin plugin;
+    private final BukkitScheduler scheduler;
+
+    BukkitPluginScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getServer().getScheduler();
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+
+    @Override
+    public int currentTick() {
+        return plugin.getServer().getCurrentTick();
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        scheduler.runTask(plugin, task);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask handle = scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return handle::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        scheduler.runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask handle = scheduler.runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return handle::cancel;
+    }
+
+    @Override
+    public void runAtEntity(Entity entity, Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            scheduler.runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public Task runAtEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        BukkitTask handle = scheduler.runTaskLater(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        }, delayTicks);
+        return handle::cancel;
+    }
+
+    @Override
+    public Task runAtEntityTimer(Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask handle = scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return handle::cancel;
+    }
+}
@@ -0,0 +1,83 @@
+package com.cheetah.customweapons.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/** Folia: entity work on the owning region thread, server-wide work on the global region. */
+final class FoliaPluginScheduler implements PluginScheduler {
+
+    private static final long NANOS_PER_TICK = 50_000_000L;
+    private static final Task NO_TASK = () -> {};
+
+    private final Plugin plugin;
+    private final long startNanos = System.nanoTime();
+
+    FoliaPluginScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return true;
+    }
+
+    @Override
+    public int currentTick() {
+        return (int) ((System.nanoTime() - startNanos) / NANOS_PER_TICK);
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().run(plugin, t -> task.run());
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask handle = Bukkit.getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, t -> task.run(), Math.max(1, delayTicks), periodTicks);
+        return handle::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run());
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask handle = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, t -> task.run(),
+                Math.max(1, delayTicks) * 50, periodTicks * 50, TimeUnit.MILLISECONDS);
+        return handle::cancel;
+    }
+
+    @Override
+    public void runAtEntity(Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            entity.getScheduler().run(plugin, t -> task.run(), null);
+        }
+    }
+
+    @Override
+    public Task runAtEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        ScheduledTask handle = entity.getScheduler().runDelayed(plugin, t -> task.run(), retired, Math.max(1, delayTicks));
+        if (handle == null) {
+            // Already removed from its world
+            if (retired != null) retired.run();
+            return NO_TASK;
+        }
+        return handle::cancel;
+    }
+
+    @Override
+    public Task runAtEntityTimer(Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask handle = entity.getScheduler().runAtFixedRate(plugin, t -> task.run(), null,
+                Math.max(1, delayTicks), periodTicks);
+        return handle != null ? handle::cancel : NO_TASK;
+    }
+}
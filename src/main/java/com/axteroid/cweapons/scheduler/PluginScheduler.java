@@ -0,0 +1,48 @@
+package com.cheetah.customweapons.scheduler;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Where plugin code runs. On Paper everything game-related runs on the main
+ * thread through the Bukkit scheduler. On Folia each entity belongs to a region
+ * thread, so entity work goes through that entity's scheduler and server-wide
+ * work through the global region scheduler.
+ */
+public interface PluginScheduler {
+
+    interface Task {
+        void cancel();
+    }
+
+    static PluginScheduler create(Plugin plugin) {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return new FoliaPluginScheduler(plugin);
+        } catch (ClassNotFoundException e) {
+            return new BukkitPluginScheduler(plugin);
+        }
+    }
+
+    /** True on Folia, where there is no single main thread. */
+    boolean isRegionized();
+
+    /** Tick counter for cooldowns and ages; wall-clock ticks on Folia, where regions tick independently. */
+    int currentTick();
+
+    void runGlobal(Runnable task);
+
+    Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    void runAsync(Runnable task);
+
+    Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /** Runs on the thread owning the entity, immediately when already on it. */
+    void runAtEntity(Entity entity, Runnable task);
+
+    /** {@code retired} runs instead if the entity is removed first; may be null. */
+    Task runAtEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks);
+
+    Task runAtEntityTimer(Entity entity, Runnable task, long delayTicks, long periodTicks);
+}
@@ -0,0 +1,118 @@
+package com.cheetah.customweapons.state;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Ability cooldowns as dense {@code int} arrays of ready-at ticks, one row per
+ * online player and one column per ability slot in the catalog. Players take a
+ * row for the session and give it back on quit. Checking or starting a cooldown
+ * is an array access and allocates nothing.
+ *
+ * Rows are stored in fixed pages that are never copied, so growing the table
+ * cannot lose a write made to another row meanwhile. A row is only read and
+ * written by its owner's thread; taking and giving back rows is synchronized,
+ * which lets Folia region threads share the table.
+ */
+public final class CooldownTable {
+
+    private static final int PAGE_SHIFT = 6;
+    private static final int PAGE_ROWS = 1 << PAGE_SHIFT;
+
+    private static final class Layout {
+        final int abilities;
+        final int[][] pages;
+
+        Layout(int abilities, int[][] pages) {
+            this.abilities = abilities;
+            this.pages = pages;
+        }
+    }
+
+    private volatile Layout layout;
+    private volatile UUID[] owners = new UUID[PAGE_ROWS];
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int rowCount;
+
+    public CooldownTable(int abilities) {
+        this.layout = new Layout(abilities, new int[][] { new int[PAGE_ROWS * abilities] });
+    }
+
+    /** Clears every cooldown and resizes rows, e.g. after a reload renumbered the ability slots. */
+    public synchronized void reset(int abilities) {
+        int[][] pages = new int[layout.pages.length][];
+        for (int i = 0; i < pages.length; i++) pages[i] = new int[PAGE_ROWS * abilities];
+        layout = new Layout(abilities, pages);
+    }
+
+    public int abilityCount() {
+        return layout.abilities;
+    }
+
+    /** Takes a free row for the player; release it when they leave. */
+    public synchronized int acquire(UUID playerId) {
+        int row = freeCount > 0 ? freeRows[--freeCount] : rowCount++;
+        Layout current = layout;
+        if ((row >>> PAGE_SHIFT) >= current.pages.length) {
+            int[][] pages = Arrays.copyOf(current.pages, current.pages.length * 2);
+            for (int i = current.pages.length; i < pages.length; i++) pages[i] = new int[PAGE_ROWS * current.abilities];
+            layout = new Layout(current.abilities, pages);
+            owners = Arrays.copyOf(owners, pages.length * PAGE_ROWS);
+        }
+        owners[row] = playerId;
+        return row;
+    }
+
+    public synchronized void release(int row) {
+        clearRow(row);
+        owners[row] = null;
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        freeRows[freeCount++] = row;
+    }
+
+    public UUID owner(int row) {
+        return owners[row];
+    }
+
+    /** Ticks until the ability is ready, 0 when it is ready now. */
+    public int remaining(int row, int ability, int now) {
+        Layout l = layout;
+        return Math.max(0, page(l, row)[offset(l, row) + ability] - now);
+    }
+
+    public void start(int row, int ability, int now, int ticks) {
+        Layout l = layout;
+        page(l, row)[offset(l, row) + ability] = now + ticks;
+    }
+
+    public void clear(int row, int ability) {
+        Layout l = layout;
+        page(l, row)[offset(l, row) + ability] = 0;
+    }
+
+    public void clearRow(int row) {
+        Layout l = layout;
+        int base = offset(l, row);
+        Arrays.fill(page(l, row), base, base + l.abilities, 0);
+    }
+
+    /** Whether every cooldown in the row has run out. */
+    public boolean settle(int row, int now) {
+        Layout l = layout;
+        int[] page = page(l, row);
+        int base = offset(l, row);
+        for (int i = 0; i < l.abilities; i++) {
+            if (page[base + i] > now) return false;
+        }
+        return true;
+    }
+
+    private static int[] page(Layout l, int row) {
+        return l.pages[row >>> PAGE_SHIFT];
+    }
+
+    private static int offset(Layout l, int row) {
+        return (row & (PAGE_ROWS - 1)) * l.abilities;
+    }
+}
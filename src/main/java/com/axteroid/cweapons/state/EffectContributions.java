@@ -0,0 +1,97 @@
+package com.cheetah.customweapons.state;
+
+import com.cheetah.customweapons.config.WeaponConfig;
+
+import java.util.Arrays;
+
+/**
+ * The hold effects each equipment slot of one player grants, reference-counted
+ * per tracked effect. The winning amplifier of an effect is kept up to date as
+ * sources change. It is only recomputed from all slots when the current winner
+ * steps down.
+ */
+public final class EffectContributions {
+
+    public static final int MAIN_HAND = 0;
+    public static final int OFF_HAND = 1;
+    public static final int HEAD = 2;
+    public static final int CHEST = 3;
+    public static final int LEGS = 4;
+    public static final int FEET = 5;
+    public static final int SOURCES = 6;
+
+    private static final int COUNT = TrackedEffects.COUNT;
+
+    // Amplifier granted per source and effect, at source * COUNT + effect; -1 for none
+    private final int[] granted = new int[SOURCES * COUNT];
+    // Sources granting each effect, and the highest amplifier among them (-1 when none)
+    private final int[] refs = new int[COUNT];
+    private final int[] winners = new int[COUNT];
+    private int mask;
+
+    EffectContributions() {
+        Arrays.fill(granted, -1);
+        Arrays.fill(winners, -1);
+    }
+
+    /** Replaces what a source grants; returns the bits of the effects whose winner changed. */
+    public int set(int source, WeaponConfig.WeaponDefinition def) {
+        int base = source * COUNT;
+        int changed = 0;
+        for (int i = 0; i < COUNT; i++) {
+            int next = def != null ? def.holdAmplifiers[i] : -1;
+            int old = granted[base + i];
+            if (next == old) continue;
+            granted[base + i] = next;
+            if (old < 0) {
+                refs[i]++;
+            } else if (next < 0) {
+                refs[i]--;
+            }
+            int winner;
+            if (refs[i] == 0) {
+                winner = -1;
+            } else if (next > winners[i]) {
+                winner = next;
+            } else if (old == winners[i]) {
+                winner = highest(i); // the winner stepped down; another source may now lead
+            } else {
+                winner = winners[i];
+            }
+            if (winner != winners[i]) {
+                winners[i] = winner;
+                changed |= 1 << i;
+                mask = winner >= 0 ? mask | 1 << i : mask & ~(1 << i);
+            }
+        }
+        return changed;
+    }
+
+    /** Drops every source; returns the bits of the effects that were granted. */
+    public int clear() {
+        int changed = mask;
+        Arrays.fill(granted, -1);
+        Arrays.fill(refs, 0);
+        Arrays.fill(winners, -1);
+        mask = 0;
+        return changed;
+    }
+
+    /** Winning amplifier of the effect, -1 when no source grants it. */
+    public int winner(int effect) {
+        return winners[effect];
+    }
+
+    /** Bits of the effects at least one source grants. */
+    public int mask() {
+        return mask;
+    }
+
+    private int highest(int effect) {
+        int best = -1;
+        for (int s = 0; s < SOURCES; s++) {
+            best = Math.max(best, granted[s * COUNT + effect]);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,91 @@
+package com.cheetah.customweapons.state;
+
+import com.cheetah.customweapons.config.WeaponConfig;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import org.bukkit.Material;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Per-player hold state. Only touched from the thread that runs the player's
+ * events (the main thread, or the player's region thread on Folia), so it
+ * carries no locks.
+ */
+public final class PlayerState {
+
+    public final UUID playerId;
+
+    // Weapon ids currently granting effects
+    public String mainHand;
+    public String offHand;
+
+    // Bit i set when TrackedEffects.type(i) is applied by us, at amplifiers[i]
+    public int effectMask;
+    public final int[] amplifiers = new int[TrackedEffects.COUNT];
+    // What each hand and armor slot grants, see HoldEffectReconciler
+    public final EffectContributions contributions = new EffectContributions();
+    // Weapon ids worn per armor slot (HEAD to FEET), bits of the armor slots holding any item,
+    // and whether they were resolved since join or the last reload
+    public final String[] armorWeapons = new String[4];
+    public int armorWorn;
+    public boolean armorResolved;
+
+    // Folia: an effect update is already queued on the player's region
+    public boolean updateQueued;
+
+    // Last resolved stack per hand, see HeldItemCache
+    public final ItemStack[] heldSnapshots = new ItemStack[2];
+    public final String[] heldIds = new String[2];
+
+    // Own random stream and per-proc counters, indexed by Proc.slot; see ProcEngine
+    public long rngSeed;
+    public int[] procMisses = new int[0];
+    public int[] procReadyAt = new int[0];
+
+    // Row in the CooldownTable for this session, -1 until the first ability is used
+    public int cooldownRow = -1;
+    // Cooldown action bar last sent, and on Folia the player's own refresh task
+    public String cooldownBar;
+    public PluginScheduler.Task cooldownBarTask;
+
+    // Last bow shot resolved; a crossbow volley raises one shoot event per arrow in the same tick,
+    // from the same hand and item type, but damages the crossbow between them
+    public int lastShotTick = -1;
+    public EquipmentSlot lastShotHand;
+    public Material lastShotType;
+    public WeaponConfig.WeaponDefinition lastShotWeapon;
+
+    PlayerState(UUID playerId) {
+        this.playerId = playerId;
+        this.rngSeed = playerId.getMostSignificantBits() ^ playerId.getLeastSignificantBits() ^ System.nanoTime();
+    }
+
+    /** Grows the proc counters; slots only go up to the catalog's proc count. */
+    public void growProcSlots(int count) {
+        procMisses = Arrays.copyOf(procMisses, count);
+        procReadyAt = Arrays.copyOf(procReadyAt, count);
+    }
+
+    /** Clears streaks and cooldowns, e.g. when proc slots were renumbered by a reload. */
+    public void resetProcs() {
+        Arrays.fill(procMisses, 0);
+        Arrays.fill(procReadyAt, 0);
+    }
+
+    /** Forgets which hold effects are applied, e.g. for a respawned player who has none. */
+    public void forgetAppliedEffects() {
+        effectMask = 0;
+        Arrays.fill(amplifiers, 0);
+    }
+
+    public void forgetHeldItems() {
+        heldSnapshots[0] = null;
+        heldSnapshots[1] = null;
+        heldIds[0] = null;
+        heldIds[1] = null;
+        armorResolved = false;
+    }
+}
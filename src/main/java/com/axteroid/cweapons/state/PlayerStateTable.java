@@ -0,0 +1,39 @@
+package com.cheetah.customweapons.state;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Player states keyed by UUID. Owned by the plugin so applied effects are still
+ * known after a reload and can be reconciled against the new catalog. The table
+ * is concurrent so Folia region threads can add and drop their own players.
+ */
+public final class PlayerStateTable {
+
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
+
+    public PlayerState get(UUID playerId) {
+        return states.get(playerId);
+    }
+
+    public PlayerState getOrCreate(UUID playerId) {
+        PlayerState state = states.get(playerId);
+        return state != null ? state : states.computeIfAbsent(playerId, PlayerState::new);
+    }
+
+    public PlayerState remove(UUID playerId) {
+        return states.remove(playerId);
+    }
+
+    public Collection<PlayerState> all() {
+        return states.values();
+    }
+
+    public void resetProcs() {
+        for (PlayerState state : states.values()) {
+            state.resetProcs();
+        }
+    }
+}
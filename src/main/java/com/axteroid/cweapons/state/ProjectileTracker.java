@@ -0,0 +1,112 @@
+package com.cheetah.customweapons.state;
+
+import com.cheetah.customweapons.config.WeaponConfig;
+
+/**
+ * Weapons of projectiles in flight, keyed by entity id. An open-addressing table
+ * over parallel arrays, so the removal on every projectile hit hashes one int and
+ * allocates nothing. Main thread only.
+ */
+public final class ProjectileTracker {
+
+    private int[] keys;
+    private WeaponConfig.WeaponDefinition[] values; // null marks a free slot
+    private int[] trackedAt;
+    private int mask;
+    private int size;
+
+    public ProjectileTracker() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new WeaponConfig.WeaponDefinition[capacity];
+        trackedAt = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public void put(int entityId, WeaponConfig.WeaponDefinition weapon, int tick) {
+        if ((size + 1) * 4 > keys.length * 3) grow();
+        int i = slot(entityId, mask);
+        while (values[i] != null && keys[i] != entityId) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == null) size++;
+        keys[i] = entityId;
+        values[i] = weapon;
+        trackedAt[i] = tick;
+    }
+
+    /** Removes the projectile and returns its weapon, or null when it was not tracked. */
+    public WeaponConfig.WeaponDefinition remove(int entityId) {
+        if (size == 0) return null;
+        int i = slot(entityId, mask);
+        while (values[i] != null) {
+            if (keys[i] == entityId) {
+                WeaponConfig.WeaponDefinition weapon = values[i];
+                removeAt(i);
+                return weapon;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void removeAt(int hole) {
+        values[hole] = null;
+        size--;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) return;
+            int home = slot(keys[j], mask);
+            boolean reachable = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (reachable) continue;
+            keys[hole] = keys[j];
+            values[hole] = values[j];
+            trackedAt[hole] = trackedAt[j];
+            values[j] = null;
+            hole = j;
+        }
+    }
+
+    /** Drops projectiles tracked more than {@code maxAge} ticks ago; returns how many. */
+    public int expire(int now, int maxAge) {
+        if (size == 0) return 0;
+        int[] expired = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null && now - trackedAt[i] > maxAge) {
+                expired[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(expired[i]);
+        }
+        return count;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        WeaponConfig.WeaponDefinition[] oldValues = values;
+        int[] oldTrackedAt = trackedAt;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], oldValues[i], oldTrackedAt[i]);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.cheetah.customweapons.state;
+
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+/**
+ * Fixed numbering of the potion effects hold boosts can grant, so per-player
+ * state can record applied effects as a bitmask.
+ */
+public final class TrackedEffects {
+
+    private static final PotionEffectType[] TYPES = {
+            PotionEffectType.SPEED,
+            PotionEffectType.STRENGTH,
+            PotionEffectType.RESISTANCE,
+            PotionEffectType.SLOWNESS
+    };
+
+    public static final int COUNT = TYPES.length;
+
+    // Hold effects for the common amplifiers, shared by every player
+    private static final int CACHED_AMPLIFIERS = 8;
+    private static final PotionEffect[] HOLD_EFFECTS = new PotionEffect[COUNT * CACHED_AMPLIFIERS];
+
+    static {
+        for (int i = 0; i < COUNT; i++) {
+            for (int a = 0; a < CACHED_AMPLIFIERS; a++) {
+                HOLD_EFFECTS[i * CACHED_AMPLIFIERS + a] = newHoldEffect(TYPES[i], a);
+            }
+        }
+    }
+
+    private TrackedEffects() {}
+
+    public static PotionEffectType type(int index) {
+        return TYPES[index];
+    }
+
+    /** The effect a hold boost applies: infinite, ambient and without particles. */
+    public static PotionEffect holdEffect(int index, int amplifier) {
+        return amplifier < CACHED_AMPLIFIERS
+                ? HOLD_EFFECTS[index * CACHED_AMPLIFIERS + amplifier]
+                : newHoldEffect(TYPES[index], amplifier);
+    }
+
+    /** Whether an active effect looks like one of ours at that amplifier, rather than a beacon's or a potion's. */
+    public static boolean isHoldEffect(PotionEffect effect, int amplifier) {
+        return effect.getAmplifier() == amplifier && effect.isAmbient() && !effect.hasParticles();
+    }
+
+    private static PotionEffect newHoldEffect(PotionEffectType type, int amplifier) {
+        return new PotionEffect(type, Integer.MAX_VALUE, amplifier, true, false, true);
+    }
+
+    /** Bit index of the type, or -1 when it is not a hold effect. */
+    public static int indexOf(PotionEffectType type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return i;
+        }
+        return -1;
+    }
+}
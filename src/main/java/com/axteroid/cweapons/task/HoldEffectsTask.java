@@ -1,164 +1,123 @@
 package com.cheetah.customweapons.task;
 
 import com.cheetah.customweapons.CustomWeapons;
-import com.cheetah.customweapons.config.WeaponConfig;
-import com.cheetah.customweapons.item.CustomItemManager;
-import org.bukkit.Bukkit;
+import com.cheetah.customweapons.item.HeldItemCache;
+import com.cheetah.customweapons.listener.InventoryListener;
+import com.cheetah.customweapons.metrics.PluginMetrics;
+import com.cheetah.customweapons.scheduler.PluginScheduler;
+import com.cheetah.customweapons.state.PlayerState;
+import com.cheetah.customweapons.state.PlayerStateTable;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
+import org.bukkit.inventory.PlayerInventory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 
-public class HoldEffectsTask implements Runnable {
+/**
+ * Safety net for hand changes no event reported, such as items moved by other
+ * plugins, {@code /give} or hoppers. Every online player is visited once per
+ * {@code intervalTicks}, spread evenly over the ticks of a round. Each tick stops
+ * once its time budget is spent and the rest carries over to the next tick.
+ *
+ * A visit only compares the held stacks with the ones last resolved, and the
+ * weapons last resolved with the ones granting effects, without touching item
+ * meta. Players whose hands changed are handed to the {@link InventoryListener}
+ * for a normal update.
+ */
+public class HoldEffectsTask {
     private final CustomWeapons plugin;
-    private final CustomItemManager itemManager;
+    private final InventoryListener inventoryListener;
+    private final HeldItemCache heldItemCache;
+    private final PlayerStateTable states;
+    private final PluginMetrics metrics;
+    private final PluginScheduler scheduler;
     private final int intervalTicks;
-    private int taskId = -1;
-    
-    // Track what each player was holding last tick
-    private final Map<Player, String> lastMainHand = new HashMap<>();
-    private final Map<Player, String> lastOffHand = new HashMap<>();
+    private final long budgetNanos;
+    private PluginScheduler.Task task;
 
-    public HoldEffectsTask(CustomWeapons plugin, CustomItemManager itemManager, int intervalTicks) {
+    // Players of the current round, visited in order from cursor
+    private Player[] round = new Player[0];
+    private int cursor;
+    private int roundTick;
+
+    public HoldEffectsTask(CustomWeapons plugin, InventoryListener inventoryListener, int intervalTicks, long budgetMicros) {
         this.plugin = plugin;
-        this.itemManager = itemManager;
-        this.intervalTicks = intervalTicks;
+        this.inventoryListener = inventoryListener;
+        this.heldItemCache = inventoryListener.getHeldItemCache();
+        this.states = plugin.getPlayerStates();
+        this.metrics = plugin.getMetrics();
+        this.scheduler = plugin.getScheduler();
+        this.intervalTicks = Math.max(1, intervalTicks);
+        this.budgetNanos = Math.max(1, budgetMicros) * 1_000L;
     }
 
     public void start() {
-        if (taskId != -1) stop();
-        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 20L, intervalTicks);
+        if (task != null) stop();
+        task = scheduler.runGlobalTimer(this::tick, 20L, 1L);
     }
 
     public void stop() {
-        if (taskId != -1) {
-            Bukkit.getScheduler().cancelTask(taskId);
-            taskId = -1;
+        if (task != null) {
+            task.cancel();
+            task = null;
         }
-        // Clean up tracking maps
-        lastMainHand.clear();
-        lastOffHand.clear();
+        round = new Player[0];
+        cursor = 0;
     }
 
-    @Override
-    public void run() {
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            ItemStack main = player.getInventory().getItemInMainHand();
-            ItemStack off = player.getInventory().getItemInOffHand();
-            
-            String currentMainId = itemManager.getItemId(main);
-            String currentOffId = itemManager.getItemId(off);
-            String lastMainId = lastMainHand.get(player);
-            String lastOffId = lastOffHand.get(player);
-            
-            // Check if main hand changed
-            if (!java.util.Objects.equals(currentMainId, lastMainId)) {
-                if (lastMainId != null) {
-                    // Remove effects from previous item
-                    removeEffects(player, lastMainId);
-                }
-                if (currentMainId != null) {
-                    // Apply effects from new item
-                    applyEffects(player, currentMainId);
+    private void tick() {
+        if (cursor >= round.length) {
+            if (++roundTick < intervalTicks) return;
+            round = plugin.getServer().getOnlinePlayers().toArray(new Player[0]);
+            cursor = 0;
+            roundTick = 0;
+            if (round.length == 0) return;
+        } else {
+            roundTick++;
+        }
+        // Players due by the end of this tick; anything left by an earlier budget stop comes first
+        int due = (int) Math.min(round.length, ((long) round.length * (roundTick + 1) + intervalTicks - 1) / intervalTicks);
+        if (cursor >= due) return;
+        long start = System.nanoTime();
+        while (cursor < due) {
+            Player player = round[cursor];
+            round[cursor++] = null;
+            if (player.isOnline()) {
+                if (scheduler.isRegionized()) {
+                    scheduler.runAtEntity(player, () -> check(player));
+                } else {
+                    check(player);
                 }
-                lastMainHand.put(player, currentMainId);
             }
-            
-            // Check if off hand changed
-            if (!java.util.Objects.equals(currentOffId, lastOffId)) {
-                if (lastOffId != null) {
-                    // Remove effects from previous item
-                    removeEffects(player, lastOffId);
-                }
-                if (currentOffId != null) {
-                    // Apply effects from new item
-                    applyEffects(player, currentOffId);
-                }
-                lastOffHand.put(player, currentOffId);
+            if (System.nanoTime() - start > budgetNanos) {
+                if (cursor < due) metrics.sweepBudgetStops.increment();
+                break;
             }
         }
+        metrics.sweep.recordSince(start);
     }
 
-    private void applyEffects(Player player, String weaponId) {
-        WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(weaponId);
-        if (def == null) return;
-        
-        // Legacy hold_effects support
-        if (def.legacyHoldEffects != null) {
-            for (Map.Entry<String, Integer> e : def.legacyHoldEffects.entrySet()) {
-                PotionEffectType type = PotionEffectType.getByName(e.getKey());
-                if (type == null) continue;
-                int amplifier = Math.max(0, e.getValue() - 1);
-                // Apply with long duration (effectively permanent while holding)
-                player.addPotionEffect(new PotionEffect(type, Integer.MAX_VALUE, amplifier, true, false, true));
-            }
-        }
-        
-        // New schema boost-based hold effects
-        if (def.boosts != null) {
-            for (WeaponConfig.BoostDef b : def.boosts) {
-                PotionEffectType type = null;
-                Integer level = null;
-                switch (b.type) {
-                    case "HOLD_SPEED":
-                        type = PotionEffectType.SPEED; level = b.value != null ? b.value.intValue() : 1; break;
-                    case "HOLD_STRENGTH":
-                        type = PotionEffectType.STRENGTH; level = b.value != null ? b.value.intValue() : 1; break;
-                    case "HOLD_RESISTANCE":
-                        type = PotionEffectType.RESISTANCE; level = b.value != null ? b.value.intValue() : 1; break;
-                    case "HOLD_SLOWNESS":
-                        type = PotionEffectType.SLOWNESS; level = b.value != null ? b.value.intValue() : 1; break;
-                    default:
-                        break;
-                }
-                if (type != null && level != null) {
-                    int amplifier = Math.max(0, level - 1);
-                    // Apply with long duration (effectively permanent while holding)
-                    player.addPotionEffect(new PotionEffect(type, Integer.MAX_VALUE, amplifier, true, false, true));
-                }
-            }
+    private void check(Player player) {
+        metrics.sweepChecks.increment();
+        PlayerInventory inventory = player.getInventory();
+        ItemStack main = inventory.getItemInMainHand();
+        ItemStack off = inventory.getItemInOffHand();
+        PlayerState state = states.get(player.getUniqueId());
+        boolean changed = state == null
+                ? !isEmpty(main) || !isEmpty(off)
+                : !heldItemCache.isCurrent(state, HeldItemCache.MAIN_HAND, main)
+                        || !heldItemCache.isCurrent(state, HeldItemCache.OFF_HAND, off)
+                        // Hits and abilities resolve hands too; their snapshot is current but no update ran
+                        || !Objects.equals(state.heldIds[HeldItemCache.MAIN_HAND], state.mainHand)
+                        || !Objects.equals(state.heldIds[HeldItemCache.OFF_HAND], state.offHand);
+        if (changed) {
+            metrics.sweepRepairs.increment();
+            inventoryListener.refresh(player);
         }
     }
-    
-    private void removeEffects(Player player, String weaponId) {
-        WeaponConfig.WeaponDefinition def = plugin.getWeaponConfig().get(weaponId);
-        if (def == null) return;
-        
-        // Remove legacy hold_effects
-        if (def.legacyHoldEffects != null) {
-            for (String effectName : def.legacyHoldEffects.keySet()) {
-                PotionEffectType type = PotionEffectType.getByName(effectName);
-                if (type != null) {
-                    player.removePotionEffect(type);
-                }
-            }
-        }
-        
-        // Remove new schema boost-based hold effects
-        if (def.boosts != null) {
-            for (WeaponConfig.BoostDef b : def.boosts) {
-                PotionEffectType type = null;
-                switch (b.type) {
-                    case "HOLD_SPEED":
-                        type = PotionEffectType.SPEED; break;
-                    case "HOLD_STRENGTH":
-                        type = PotionEffectType.STRENGTH; break;
-                    case "HOLD_RESISTANCE":
-                        type = PotionEffectType.RESISTANCE; break;
-                    case "HOLD_SLOWNESS":
-                        type = PotionEffectType.SLOWNESS; break;
-                    default:
-                        break;
-                }
-                if (type != null) {
-                    player.removePotionEffect(type);
-                }
-            }
-        }
+
+    private static boolean isEmpty(ItemStack stack) {
+        return stack == null || stack.getType() == Material.AIR;
     }
 }
-
-
@@ -0,0 +1,128 @@
+package com.cheetah.customweapons.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A name, lore or boost-display template compiled once at config load.
+ *
+ * Colors and {@code <colorize:...>} tags belong to the weapon definition, so
+ * they are resolved and color-translated at compile time. What remains is a list
+ * of translated literal segments separated by {@code {boost}}/{@code {boosts}}
+ * slots, rendered in a single pass. Output is identical to the
+ * {@link TextUtil} pipeline; templates or values where splitting could change
+ * how color codes are read fall back to that pipeline.
+ */
+public final class TextTemplate {
+
+    private enum Mode { LINE, BOOST_DISPLAY }
+
+    // A literal ending here could merge with the next value into a color code
+    private static final Pattern UNSAFE_TAIL = Pattern.compile("&(#[A-Fa-f0-9]{0,5})?$");
+
+    private final String template;
+    private final String[] literals; // translated; null when rendering must use the TextUtil pipeline
+    private final List<String> colors;
+    private final Mode mode;
+
+    private TextTemplate(String template, String[] literals, List<String> colors, Mode mode) {
+        this.template = template;
+        this.literals = literals;
+        this.colors = colors;
+        this.mode = mode;
+    }
+
+    /** Display name: colorize tag, colors and hex resolved up front. */
+    public static TextTemplate compileName(String template, List<String> colorized, List<String> colors) {
+        String displayName = TextUtil.applyColorizeTag(template, colorized);
+        displayName = TextUtil.applyPlaceholders(displayName, colors, null);
+        return new TextTemplate(template, new String[] { displayName }, colors, Mode.LINE);
+    }
+
+    /** Lore line; {@code {boost}} and {@code {boosts}} take the joined boost lines. */
+    public static TextTemplate compileLine(String template, List<String> colors) {
+        return compile(template, colors, Mode.LINE);
+    }
+
+    /** Boost display; {@code {boost}} and {@code {boosts}} take the boost text. */
+    public static TextTemplate compileBoostDisplay(String template, List<String> colors) {
+        return compile(template, colors, Mode.BOOST_DISPLAY);
+    }
+
+    private static TextTemplate compile(String template, List<String> colors, Mode mode) {
+        if (template == null) return null;
+        for (String color : colors) {
+            // A color value carrying placeholders depends on replacement order
+            if (color.indexOf('{') >= 0 || color.indexOf('}') >= 0) {
+                return new TextTemplate(template, null, colors, mode);
+            }
+        }
+        String resolved = TextUtil.applyPlaceholders(template, colors, null);
+
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        int i = resolved.indexOf('{');
+        while (i >= 0) {
+            int len;
+            if (resolved.startsWith("{boost}", i)) {
+                len = 7;
+            } else if (resolved.startsWith("{boosts}", i)) {
+                len = 8;
+            } else {
+                i = resolved.indexOf('{', i + 1);
+                continue;
+            }
+            String piece = resolved.substring(start, i);
+            if (UNSAFE_TAIL.matcher(piece).find()) {
+                return new TextTemplate(template, null, colors, mode);
+            }
+            pieces.add(piece);
+            start = i + len;
+            i = resolved.indexOf('{', start);
+        }
+        pieces.add(resolved.substring(start));
+
+        String[] literals = new String[pieces.size()];
+        for (int p = 0; p < literals.length; p++) {
+            literals[p] = TextUtil.applyAmpColors(pieces.get(p));
+        }
+        return new TextTemplate(template, literals, colors, mode);
+    }
+
+    public String render(String value) {
+        if (literals != null && literals.length == 1) return literals[0];
+        StringBuilder out = new StringBuilder();
+        renderTo(out, value);
+        return out.toString();
+    }
+
+    public void renderTo(StringBuilder out, String value) {
+        if (literals == null || (literals.length > 1 && !isPlainValue(value))) {
+            out.append(renderLegacy(value));
+            return;
+        }
+        out.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            out.append(value).append(literals[i]);
+        }
+    }
+
+    // Values without '&' or braces translate to themselves and cannot form codes or placeholders
+    private static boolean isPlainValue(String value) {
+        if (value == null) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '&' || c == '{' || c == '}') return false;
+        }
+        return true;
+    }
+
+    private String renderLegacy(String value) {
+        String raw = template;
+        if (mode == Mode.BOOST_DISPLAY) {
+            raw = raw.replace("{boost}", value);
+        }
+        return TextUtil.applyAmpColors(TextUtil.applyPlaceholders(raw, colors, value));
+    }
+}
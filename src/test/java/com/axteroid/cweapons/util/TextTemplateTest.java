@@ -0,0 +1,123 @@
+package com.cheetah.customweapons.util;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.cheetah.customweapons.config.WeaponConfig;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compiled templates must render exactly what the TextUtil pipeline did before
+ * they were introduced, for the shipped catalog and for templates that hit the
+ * fallback guards.
+ */
+class TextTemplateTest {
+
+    private static Plugin plugin;
+
+    @BeforeAll
+    static void setUp() {
+        MockBukkit.mock();
+        plugin = MockBukkit.createMockPlugin();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void defaultCatalogMatchesLegacyPipeline() throws Exception {
+        YamlConfiguration yaml = new YamlConfiguration();
+        try (Reader reader = new InputStreamReader(
+                TextTemplateTest.class.getResourceAsStream("/config.yml"), StandardCharsets.UTF_8)) {
+            yaml.load(reader);
+        }
+        WeaponConfig config = new WeaponConfig(yaml, plugin);
+        assertFalse(config.getDefinitions().isEmpty());
+        assertMatchesLegacy(config);
+    }
+
+    @Test
+    void guardedTemplatesMatchLegacyPipeline() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        // Literals ending in '&' or part of a hex code before a slot, and values that carry codes
+        weapon(yaml, "amp_tail", "<colorize:Edge>", List.of("&{boosts}", "&#AE{boost}x", "{color_1}{boosts}&r"),
+                List.of("&#27FFEE", "&l"), "{color_2}&{boost}", "HOLD_SPEED");
+        weapon(yaml, "code_value", "&#F16164Code {color_1}Value", List.of("&7{boosts}", "{boosts}{boosts}"),
+                List.of("&c"), "&7{boost} {color_1}", "&A");
+        weapon(yaml, "brace_color", "Brace", List.of("{color_1}{boosts}"),
+                List.of("{boost}&e"), "{color_1}{boost}", "HOLD_STRENGTH");
+        weapon(yaml, "no_slot", "&#DBCC00Plain", List.of("&#AEAEAEA line without slots", ""),
+                List.of(), "{boost}", "HIT_IGNITE");
+        assertMatchesLegacy(new WeaponConfig(yaml, plugin));
+    }
+
+    private static void weapon(YamlConfiguration yaml, String id, String name, List<String> lore,
+                               List<String> colors, String boostDisplay, String boostType) {
+        String base = "weapons." + id;
+        yaml.set(base + ".id", id);
+        yaml.set(base + ".weapon.name", name);
+        yaml.set(base + ".weapon.lore", lore);
+        yaml.set(base + ".weapon.material", "NETHERITE_SWORD");
+        yaml.set(base + ".colorized", List.of("&#F16164", "&#F18A55", "&#DBCC00"));
+        yaml.set(base + ".colors", colors);
+        yaml.set(base + ".boost-display", boostDisplay);
+        yaml.set(base + ".boosts.1.type", boostType);
+        yaml.set(base + ".boosts.1.value", 2);
+        yaml.set(base + ".boosts.2.type", "HIT_POISON");
+        yaml.set(base + ".boosts.2.chance", 0.25);
+    }
+
+    private static void assertMatchesLegacy(WeaponConfig config) {
+        for (WeaponConfig.WeaponDefinition def : config.getDefinitions().values()) {
+            assertEquals(legacyName(def), def.renderDisplayName(), def.id + " name");
+            assertEquals(legacyLore(def), def.renderLore(), def.id + " lore");
+        }
+    }
+
+    // The rendering WeaponDefinition did before templates were compiled
+    private static String legacyName(WeaponConfig.WeaponDefinition def) {
+        if (def.weaponNameTemplate == null) return def.legacyDisplayName;
+        String displayName = TextUtil.applyColorizeTag(def.weaponNameTemplate, def.colorized);
+        return TextUtil.applyPlaceholders(displayName, def.colors, null);
+    }
+
+    private static List<String> legacyLore(WeaponConfig.WeaponDefinition def) {
+        List<String> lore = new ArrayList<>();
+        if (def.weaponLoreTemplates != null && !def.weaponLoreTemplates.isEmpty()) {
+            List<String> boostLines = new ArrayList<>();
+            for (WeaponConfig.BoostDef b : def.boosts) {
+                String bText = b.type;
+                if (b.value != null) bText += " x" + b.value;
+                if (b.chance != null) bText += " (" + (int) Math.round(b.chance * 100) + "%)";
+                String rendered = def.boostDisplay.replace("{boost}", bText);
+                rendered = TextUtil.applyPlaceholders(rendered, def.colors, bText);
+                boostLines.add(TextUtil.applyAmpColors(rendered));
+            }
+            String joinedBoosts = String.join("\n", boostLines);
+            for (String line : def.weaponLoreTemplates) {
+                lore.add(TextUtil.applyAmpColors(TextUtil.applyPlaceholders(line, def.colors, joinedBoosts)));
+            }
+        }
+        if (lore.isEmpty() && def.legacyHoldEffects != null && !def.legacyHoldEffects.isEmpty()) {
+            lore.add(TextUtil.applyAmpColors("&7Hold Effects:"));
+            for (Map.Entry<String, Integer> e : def.legacyHoldEffects.entrySet()) {
+                lore.add(TextUtil.applyAmpColors("&3" + e.getKey() + " " + e.getValue()));
+            }
+        }
+        return lore;
+    }
+}